@@ -1,9 +1,14 @@
 package com.example.bankcards;
 
+import com.example.bankcards.config.CardEncryptionProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties(CardEncryptionProperties.class)
 public class BankCardsApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,20 @@
+package com.example.bankcards.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Card number keys by version, each a base64 encoded 128/192/256-bit AES key. New
+ * values are written with activeKeyVersion; values without a version prefix were
+ * written before versioning and are read with legacyKey. indexKey is the separate
+ * base64 encoded HMAC key behind the card number blind index.
+ */
+@ConfigurationProperties(prefix = "app.card-encryption")
+public record CardEncryptionProperties(
+        int activeKeyVersion,
+        Map<Integer, String> keys,
+        String legacyKey,
+        String indexKey
+) {
+}
@@ -1,8 +1,11 @@
 package com.example.bankcards.config;
 
-import com.example.bankcards.security.CustomUserDetailsService;
+import com.example.bankcards.security.AuthenticatedUser;
+import com.example.bankcards.security.TokenRevocationRegistry;
 import com.example.bankcards.util.JwtTokenUtil;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,11 +13,12 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -22,8 +26,12 @@ import java.io.IOException;
 public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final JwtTokenUtil jwtTokenUtil;
-    private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
+    /**
+     * The authentication is built from the verified claims only; the user row is not
+     * read. Tokens without a user id claim are ignored and the client has to log in again.
+     */
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
 
@@ -39,20 +47,26 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String jwt = authHeader.substring(7);
             try {
-                String username = jwtTokenUtil.getUsername(jwt);
+                Claims claims = jwtTokenUtil.getAllClaimsFromToken(jwt);
+                Long userId = claims.get(JwtTokenUtil.USER_ID_CLAIM, Long.class);
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                if (userId != null && claims.getSubject() != null
+                        && !tokenRevocationRegistry.isRevoked(userId, claims.getIssuedAt())
+                        && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    List<SimpleGrantedAuthority> authorities = jwtTokenUtil.getRoles(claims).stream()
+                            .map(SimpleGrantedAuthority::new)
+                            .toList();
                     UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            new AuthenticatedUser(userId, claims.getSubject()),
                             null,
-                            userDetails.getAuthorities()
+                            authorities
                     );
                     SecurityContextHolder.getContext().setAuthentication(token);
                 }
             } catch (ExpiredJwtException e) {
                 log.debug("Время жизни токена вышло");
+            } catch (JwtException e) {
+                log.debug("Недействительный токен: {}", e.getMessage());
             }
             filterChain.doFilter(request, response);
         }
@@ -1,16 +1,29 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.BlockRequestDecisionRequest;
+import com.example.bankcards.dto.BlockRequestDecisionResponse;
+import com.example.bankcards.dto.BlockRequestDto;
 import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardImportErrorDto;
+import com.example.bankcards.dto.CardImportFormat;
+import com.example.bankcards.dto.CardImportJobDto;
+import com.example.bankcards.dto.CardKeyRotationDto;
+import com.example.bankcards.dto.CardLookupRequest;
 import com.example.bankcards.dto.CreateCardRequest;
+import com.example.bankcards.dto.KeysetSlice;
+import com.example.bankcards.dto.TransferContentionDto;
 import com.example.bankcards.service.AdminCardManagementService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/api/v1/admin/cards")
 @RequiredArgsConstructor
@@ -24,6 +37,44 @@ public class AdminCardManagementController {
         return ResponseEntity.status(HttpStatus.CREATED).body(cardDto);
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<CardImportJobDto> importCards(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        CardImportJobDto job = adminCardManagementService.importCards(body, CardImportFormat.fromContentType(contentType));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/import/{jobId}")
+    public CardImportJobDto getImportJob(@PathVariable Long jobId) {
+        return adminCardManagementService.getImportJob(jobId);
+    }
+
+    @GetMapping("/import/{jobId}/errors")
+    public KeysetSlice<CardImportErrorDto> getImportErrors(
+            @PathVariable Long jobId,
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return adminCardManagementService.getImportErrors(jobId, after, limit);
+    }
+
+    @PostMapping("/lookup")
+    public CardDto findCardByNumber(@RequestBody @Valid CardLookupRequest request) {
+        return adminCardManagementService.findCardByNumber(request.getCardNumber());
+    }
+
+    @GetMapping("/block-requests")
+    public KeysetSlice<BlockRequestDto> getPendingBlockRequests(
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return adminCardManagementService.getPendingBlockRequests(after, limit);
+    }
+
+    @PostMapping("/block-requests/decisions")
+    public BlockRequestDecisionResponse decideBlockRequests(@RequestBody @Valid BlockRequestDecisionRequest request) {
+        return adminCardManagementService.decideBlockRequests(request);
+    }
+
     @PostMapping("/{cardId}/block")
     public ResponseEntity<Void> blockCard(@PathVariable Long cardId) {
         adminCardManagementService.blockCard(cardId);
@@ -42,6 +93,33 @@ public class AdminCardManagementController {
         return adminCardManagementService.getAllCards(pageable);
     }
 
+    @GetMapping(params = "limit")
+    public KeysetSlice<CardDto> getCardsAfter(
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam int limit) {
+        return adminCardManagementService.getCardsAfter(after, limit);
+    }
+
+    @GetMapping("/transfer-contention")
+    public TransferContentionDto getTransferContention() {
+        return adminCardManagementService.getTransferContention();
+    }
+
+    @PostMapping("/key-rotation")
+    public ResponseEntity<CardKeyRotationDto> startKeyRotation() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(adminCardManagementService.startKeyRotation());
+    }
+
+    @PostMapping("/key-rotation/pause")
+    public CardKeyRotationDto pauseKeyRotation() {
+        return adminCardManagementService.pauseKeyRotation();
+    }
+
+    @GetMapping("/key-rotation")
+    public CardKeyRotationDto getKeyRotation() {
+        return adminCardManagementService.getKeyRotation();
+    }
+
     @DeleteMapping("/{cardId}")
     public ResponseEntity<Void> deleteCard(@PathVariable Long cardId) {
         adminCardManagementService.deleteCard(cardId);
@@ -1,6 +1,10 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.BulkCreateUsersRequest;
+import com.example.bankcards.dto.BulkCreateUsersResponse;
 import com.example.bankcards.dto.CreateUserRequest;
+import com.example.bankcards.dto.KeysetSlice;
+import com.example.bankcards.dto.PasswordHashingStatsDto;
 import com.example.bankcards.dto.UpdateUserRequest;
 import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.service.AdminUserManagementService;
@@ -25,6 +29,11 @@ public class AdminUserManagementController {
         return ResponseEntity.status(HttpStatus.CREATED).body(userDto);
     }
 
+    @PostMapping("/bulk")
+    public BulkCreateUsersResponse createUsers(@RequestBody @Valid BulkCreateUsersRequest request) {
+        return adminUserManagementService.createUsers(request);
+    }
+
     @GetMapping
     public ResponseEntity<Page<UserDto>> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
@@ -33,6 +42,18 @@ public class AdminUserManagementController {
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping(params = "limit")
+    public ResponseEntity<KeysetSlice<UserDto>> getUsersAfter(
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam int limit) {
+        return ResponseEntity.ok(adminUserManagementService.getUsersAfter(after, limit));
+    }
+
+    @GetMapping("/password-hashing")
+    public PasswordHashingStatsDto getPasswordHashingStats() {
+        return adminUserManagementService.getPasswordHashingStats();
+    }
+
     @GetMapping("/{userId}")
     public ResponseEntity<UserDto> getUserById(@PathVariable Long userId) {
         UserDto userDto = adminUserManagementService.getUserById(userId);
@@ -3,6 +3,7 @@ package com.example.bankcards.controller;
 import com.example.bankcards.dto.CreateUserRequest;
 import com.example.bankcards.dto.JwtRequest;
 import com.example.bankcards.dto.JwtResponse;
+import com.example.bankcards.dto.RefreshTokenRequest;
 import com.example.bankcards.dto.ValidateTokenResponse;
 import com.example.bankcards.service.AuthenticationService;
 import jakarta.validation.Valid;
@@ -30,6 +31,11 @@ public class AuthenticationController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refresh(@RequestBody @Valid RefreshTokenRequest request) {
+        return ResponseEntity.ok(authenticationService.refresh(request));
+    }
+
     @GetMapping("/validate")
     public ResponseEntity<ValidateTokenResponse> validateToken(@RequestHeader("Authorization") String authHeader) {
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -1,15 +1,28 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.AsyncTransferDto;
+import com.example.bankcards.dto.BatchTransferRequest;
+import com.example.bankcards.dto.BatchTransferResponse;
 import com.example.bankcards.dto.CardDto;
 import com.example.bankcards.dto.CardSearchRequest;
+import com.example.bankcards.dto.CardTransactionPage;
+import com.example.bankcards.dto.StatementFormat;
+import com.example.bankcards.dto.TransactionHistoryRequest;
 import com.example.bankcards.dto.TransferRequest;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.StatementExportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("api/v1/cards")
@@ -17,6 +30,7 @@ import java.math.BigDecimal;
 public class CardController {
 
     private final CardService cardService;
+    private final StatementExportService statementExportService;
 
 
     @GetMapping
@@ -34,11 +48,51 @@ public class CardController {
     }
 
     @PostMapping("/transfer")
-    public ResponseEntity<Void> transferBetweenCards(@RequestBody @Valid TransferRequest request) {
-        cardService.transferBetweenCards(request);
+    public ResponseEntity<AsyncTransferDto> transferBetweenCards(
+            @RequestBody @Valid TransferRequest request,
+            @RequestParam(defaultValue = "false") boolean async,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (async) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(cardService.submitTransfer(request, idempotencyKey));
+        }
+        cardService.transferBetweenCards(request, idempotencyKey);
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/transfers/batch")
+    public BatchTransferResponse transferBatch(@RequestBody @Valid BatchTransferRequest request) {
+        return cardService.transferBatch(request);
+    }
+
+    @GetMapping("/transfers/{transferId}")
+    public AsyncTransferDto getTransferStatus(@PathVariable Long transferId) {
+        return cardService.getTransferStatus(transferId);
+    }
+
+    @GetMapping("/{cardId}/transactions")
+    public CardTransactionPage getCardTransactions(
+            @PathVariable Long cardId,
+            @ModelAttribute @Valid TransactionHistoryRequest request) {
+        return cardService.getCardTransactions(cardId, request);
+    }
+
+    @GetMapping("/{cardId}/statement")
+    public ResponseEntity<StreamingResponseBody> exportStatement(
+            @PathVariable Long cardId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        StatementFormat statementFormat = StatementFormat.fromParameter(format);
+        StreamingResponseBody body = statementExportService.export(cardId, from, to, statementFormat);
+        return ResponseEntity.ok()
+                .contentType(statementFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("statement-" + cardId + "-" + from + "-" + to + "." + statementFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     @GetMapping("/{cardId}/balance")
     public BigDecimal getCardBalance(@PathVariable Long cardId) {
         return cardService.getCardBalance(cardId);
@@ -0,0 +1,31 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.AsyncTransfer;
+import com.example.bankcards.entity.TransferStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record AsyncTransferDto(
+        Long id,
+        Long fromCardId,
+        Long toCardId,
+        BigDecimal amount,
+        TransferStatus status,
+        String failureReason,
+        LocalDateTime createdAt,
+        LocalDateTime processedAt
+) {
+    public static AsyncTransferDto from(AsyncTransfer transfer) {
+        return new AsyncTransferDto(
+                transfer.getId(),
+                transfer.getFromCardId(),
+                transfer.getToCardId(),
+                transfer.getAmount(),
+                transfer.getStatus(),
+                transfer.getFailureReason(),
+                transfer.getCreatedAt(),
+                transfer.getProcessedAt()
+        );
+    }
+}
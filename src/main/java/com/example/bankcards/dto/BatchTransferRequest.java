@@ -0,0 +1,29 @@
+package com.example.bankcards.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BatchTransferRequest {
+
+    /**
+     * Two cards per transfer, each taking a lock stripe for the whole batch; kept small
+     * so a batch cannot hold most of the stripes and stall other transfers.
+     */
+    public static final int MAX_TRANSFERS = 100;
+
+    @NotEmpty
+    @Size(max = MAX_TRANSFERS, message = "В одном пакете не больше 100 переводов")
+    List<@Valid @NotNull TransferRequest> transfers;
+
+    @NotNull
+    BatchTransferMode mode = BatchTransferMode.ALL_OR_NOTHING;
+}
@@ -0,0 +1,21 @@
+package com.example.bankcards.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record BatchTransferResponse(
+        BatchTransferMode mode,
+        int completed,
+        int rejected,
+        List<ItemResult> results
+) {
+    public record ItemResult(
+            int index,
+            Long fromCardId,
+            Long toCardId,
+            BigDecimal amount,
+            String outcome,
+            String message
+    ) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.BlockRequestStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BlockRequestDecisionRequest {
+
+    @NotEmpty
+    @Size(max = 1000, message = "В одном решении не больше 1000 заявок")
+    List<@NotNull Long> requestIds;
+
+    @NotNull
+    BlockRequestStatus decision;
+}
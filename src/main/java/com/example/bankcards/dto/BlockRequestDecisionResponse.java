@@ -0,0 +1,10 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.BlockRequestStatus;
+
+public record BlockRequestDecisionResponse(
+        BlockRequestStatus decision,
+        int requestsUpdated,
+        int cardsBlocked
+) {
+}
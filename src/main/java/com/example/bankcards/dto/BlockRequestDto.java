@@ -0,0 +1,25 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.repository.BlockRequestRow;
+import com.example.bankcards.util.CardMasker;
+
+public record BlockRequestDto(
+        Long id,
+        Long cardId,
+        String maskedCardNumber,
+        CardStatus cardStatus,
+        Long userId,
+        String reason
+) {
+
+    public static BlockRequestDto from(BlockRequestRow row) {
+        return new BlockRequestDto(
+                row.id(),
+                row.cardId(),
+                CardMasker.maskLastFour(row.lastFourNumbers()),
+                row.cardStatus(),
+                row.userId(),
+                row.reason());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.bankcards.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BulkCreateUsersRequest {
+
+    @NotEmpty
+    @Size(max = 5000, message = "В одном запросе не больше 5000 пользователей")
+    List<@Valid @NotNull CreateUserRequest> users;
+}
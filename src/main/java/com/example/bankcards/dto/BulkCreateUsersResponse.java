@@ -0,0 +1,18 @@
+package com.example.bankcards.dto;
+
+import java.util.List;
+
+public record BulkCreateUsersResponse(
+        int created,
+        int rejected,
+        List<ItemResult> results
+) {
+    public record ItemResult(
+            int index,
+            String email,
+            Long userId,
+            String outcome,
+            String message
+    ) {
+    }
+}
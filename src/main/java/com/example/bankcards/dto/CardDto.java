@@ -2,10 +2,9 @@ package com.example.bankcards.dto;
 
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
-import com.example.bankcards.util.CardEncryptor;
+import com.example.bankcards.repository.CardPageRow;
 import com.example.bankcards.util.CardMasker;
 import io.swagger.v3.oas.annotations.media.Schema;
-import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 
 import java.math.BigDecimal;
@@ -30,23 +29,31 @@ public record CardDto(
         BigDecimal balance,
 
         @NotNull(message = "Owner is required")
-        @Valid
-        UserDto owner,
+        CardOwnerDto owner,
 
         @Schema(description = "Статус карты", example = "ACTIVATED")
         @NotNull(message = "Status is required")
         CardStatus status
 ) {
     public static CardDto from(Card card) {
-        String decrypted = CardEncryptor.decrypt(card.getCardNumber());
-        String cardNumber = CardMasker.maskCardNumber(decrypted);
         return new CardDto(
                 card.getId(),
-                cardNumber,
+                CardMasker.maskLastFour(card.getLastFourNumbers()),
                 card.getExpiryDate(),
                 card.getBalance(),
-                UserDto.from(card.getOwner()),
+                CardOwnerDto.from(card.getOwner()),
                 card.getStatus()
         );
     }
+
+    public static CardDto from(CardPageRow row) {
+        return new CardDto(
+                row.id(),
+                CardMasker.maskLastFour(row.lastFourNumbers()),
+                row.expiryDate(),
+                row.balance(),
+                new CardOwnerDto(row.ownerId(), row.ownerFirstName(), row.ownerLastName(), row.ownerEmail()),
+                row.status()
+        );
+    }
 }
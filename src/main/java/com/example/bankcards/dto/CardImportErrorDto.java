@@ -0,0 +1,10 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.CardImportError;
+
+public record CardImportErrorDto(Long id, long lineNumber, String message) {
+
+    public static CardImportErrorDto from(CardImportError error) {
+        return new CardImportErrorDto(error.getId(), error.getLineNumber(), error.getMessage());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.CardImportJob;
+import com.example.bankcards.entity.CardImportStatus;
+
+import java.time.LocalDateTime;
+
+public record CardImportJobDto(
+        Long id,
+        CardImportFormat format,
+        CardImportStatus status,
+        long rowsProcessed,
+        long rowsImported,
+        long rowsFailed,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime finishedAt,
+        String failureReason
+) {
+
+    public static CardImportJobDto from(CardImportJob job) {
+        return new CardImportJobDto(
+                job.getId(),
+                job.getFormat(),
+                job.getStatus(),
+                job.getRowsProcessed(),
+                job.getRowsImported(),
+                job.getRowsFailed(),
+                job.getCreatedAt(),
+                job.getUpdatedAt(),
+                job.getFinishedAt(),
+                job.getFailureReason());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.CardKeyRotation;
+import com.example.bankcards.entity.CardKeyRotationStatus;
+
+import java.time.LocalDateTime;
+
+public record CardKeyRotationDto(
+        Long id,
+        int targetKeyVersion,
+        CardKeyRotationStatus status,
+        long lastCardId,
+        long maxCardId,
+        long rowsScanned,
+        long rowsRotated,
+        long rowsFailed,
+        LocalDateTime startedAt,
+        LocalDateTime updatedAt,
+        LocalDateTime finishedAt,
+        String failureReason
+) {
+
+    public static CardKeyRotationDto from(CardKeyRotation rotation) {
+        return new CardKeyRotationDto(
+                rotation.getId(),
+                rotation.getTargetKeyVersion(),
+                rotation.getStatus(),
+                rotation.getLastCardId(),
+                rotation.getMaxCardId(),
+                rotation.getRowsScanned(),
+                rotation.getRowsRotated(),
+                rotation.getRowsFailed(),
+                rotation.getStartedAt(),
+                rotation.getUpdatedAt(),
+                rotation.getFinishedAt(),
+                rotation.getFailureReason());
+    }
+}
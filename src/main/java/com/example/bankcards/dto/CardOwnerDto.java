@@ -0,0 +1,18 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.User;
+
+/**
+ * Owner reference embedded in card listings; the owner's card count and total
+ * balance are served by the user endpoints instead of being computed per card.
+ */
+public record CardOwnerDto(
+        Long id,
+        String firstName,
+        String lastName,
+        String email
+) {
+    public static CardOwnerDto from(User user) {
+        return new CardOwnerDto(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.LedgerDirection;
+import com.example.bankcards.entity.LedgerEntry;
+import com.example.bankcards.entity.Transactions;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record CardTransactionDto(
+        Long id,
+        Long transactionId,
+        LedgerDirection direction,
+        BigDecimal amount,
+        BigDecimal balanceAfter,
+        Long counterpartCardId,
+        String description,
+        LocalDateTime createdAt) {
+
+    public static CardTransactionDto from(LedgerEntry entry) {
+        Transactions transaction = entry.getTransaction();
+        Card counterpart = entry.getDirection() == LedgerDirection.DEBIT ? transaction.getToCard() : transaction.getFromCard();
+        return new CardTransactionDto(
+                entry.getId(),
+                transaction.getId(),
+                entry.getDirection(),
+                entry.getAmount(),
+                entry.getBalanceAfter(),
+                counterpart != null ? counterpart.getId() : null,
+                transaction.getDescription(),
+                entry.getCreatedAt());
+    }
+}
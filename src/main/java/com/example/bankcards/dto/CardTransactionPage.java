@@ -0,0 +1,6 @@
+package com.example.bankcards.dto;
+
+import java.util.List;
+
+public record CardTransactionPage(List<CardTransactionDto> items, String nextCursor) {
+}
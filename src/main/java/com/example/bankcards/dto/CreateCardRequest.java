@@ -1,7 +1,7 @@
 package com.example.bankcards.dto;
 
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.experimental.FieldDefaults;
@@ -13,7 +13,7 @@ import java.time.LocalDate;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class CreateCardRequest {
 
-    @NotBlank
+    @Pattern(regexp = "\\d{16}", message = "Номер карты должен состоять из 16 цифр")
     String cardNumber;
 
     @NotNull
@@ -1,6 +1,7 @@
 package com.example.bankcards.dto;
 
 public record JwtResponse(
-        String token
+        String token,
+        String refreshToken
 ) {
 }
@@ -0,0 +1,24 @@
+package com.example.bankcards.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of an id-ordered listing. nextAfter is the id to pass as ?after= for the
+ * following page, or null on the last one.
+ */
+public record KeysetSlice<T>(List<T> items, Long nextAfter) {
+
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * Builds the slice from up to limit + 1 rows; the extra row only signals that
+     * another page exists.
+     */
+    public static <R, T> KeysetSlice<T> of(List<R> rows, int limit, Function<R, Long> idOf, Function<R, T> mapper) {
+        boolean hasNext = rows.size() > limit;
+        List<R> page = hasNext ? rows.subList(0, limit) : rows;
+        Long nextAfter = hasNext ? idOf.apply(page.get(page.size() - 1)) : null;
+        return new KeysetSlice<>(page.stream().map(mapper).toList(), nextAfter);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bankcards.dto;
+
+public record PasswordHashingStatsDto(
+        long completed,
+        long rejected,
+        long timedOut,
+        long averageQueueMicros,
+        long maxQueueMicros,
+        long averageHashMicros,
+        int queued
+) {
+}
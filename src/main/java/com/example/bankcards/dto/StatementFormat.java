@@ -0,0 +1,27 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.exception.CardOperationException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+@Getter
+@RequiredArgsConstructor
+public enum StatementFormat {
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+    NDJSON(new MediaType("application", "x-ndjson"), "ndjson");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    public static StatementFormat fromParameter(String value) {
+        for (StatementFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new CardOperationException("Неподдерживаемый формат выписки: " + value);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.bankcards.dto;
+
+import java.math.BigDecimal;
+
+public record TransferCommand(
+        Long ownerId,
+        Long fromCardId,
+        Long toCardId,
+        BigDecimal amount,
+        String description
+) {
+    public static final String DEFAULT_DESCRIPTION = "Перевод между картами";
+
+    public static TransferCommand of(Long ownerId, TransferRequest request) {
+        return new TransferCommand(
+                ownerId,
+                request.getFromCardId(),
+                request.getToCardId(),
+                request.getAmount(),
+                request.getDescription() != null ? request.getDescription() : DEFAULT_DESCRIPTION
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.bankcards.dto;
+
+import java.util.List;
+
+public record TransferContentionDto(
+        long lockAcquisitions,
+        long contendedAcquisitions,
+        long averageLockWaitMicros,
+        long maxLockWaitMicros,
+        long retries,
+        long exhaustedRetries,
+        List<CardContention> hottestCards
+) {
+    public record CardContention(
+            Long cardId,
+            long contendedAcquisitions,
+            long lockWaitMicros,
+            long retries
+    ) {
+    }
+}
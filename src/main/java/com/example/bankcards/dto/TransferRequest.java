@@ -15,9 +15,10 @@ public class TransferRequest {
     @NotNull
     Long fromCardId;
 
-    @NotNull
     Long toCardId;
 
+    String toCardNumber;
+
     @NotNull
             @DecimalMin(value = "0.01", message = "Сумма должна быть больше 0 рублей")
     BigDecimal amount;
@@ -2,6 +2,7 @@ package com.example.bankcards.dto;
 
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.UserSummaryRow;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.experimental.FieldDefaults;
@@ -39,4 +40,15 @@ public class UserDto {
                         .reduce(BigDecimal.ZERO, BigDecimal::add)
         );
     }
+
+    public static UserDto from(UserSummaryRow row) {
+        return new UserDto(
+                row.id(),
+                row.firstName(),
+                row.lastName(),
+                row.email(),
+                row.cardsCount().intValue(),
+                row.totalBalance()
+        );
+    }
 }
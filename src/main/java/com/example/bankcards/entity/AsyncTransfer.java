@@ -0,0 +1,49 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "async_transfers")
+public class AsyncTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "user_id", nullable = false)
+    Long ownerId;
+
+    @Column(name = "from_card_id", nullable = false)
+    Long fromCardId;
+
+    @Column(name = "to_card_id", nullable = false)
+    Long toCardId;
+
+    @Column(name = "amount", nullable = false)
+    BigDecimal amount;
+
+    @Column(name = "description")
+    String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    TransferStatus status;
+
+    @Column(name = "failure_reason")
+    String failureReason;
+
+    @Column(name = "created_at", nullable = false)
+    LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    LocalDateTime processedAt;
+}
@@ -14,7 +14,9 @@ import lombok.experimental.FieldDefaults;
 public class BlockCardRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "block_card_request_id")
+    @TableGenerator(name = "block_card_request_id", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "block_card_request", allocationSize = 50)
     Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
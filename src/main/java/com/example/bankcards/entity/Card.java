@@ -18,13 +18,18 @@ import java.util.List;
 public class Card {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "cards_id")
+    @TableGenerator(name = "cards_id", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "cards", allocationSize = 50)
     @Column(name = "id", nullable = false, unique = true)
     Long id;
 
     @Column(name = "card_number", nullable = false)
     String cardNumber;
 
+    @Column(name = "card_number_hash", unique = true, length = 64)
+    String cardNumberHash;
+
     @Column(name = "last_four_digits", nullable = false, length = 4)
     String lastFourNumbers;
 
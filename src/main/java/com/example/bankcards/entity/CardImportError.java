@@ -0,0 +1,28 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "card_import_errors")
+public class CardImportError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "job_id", nullable = false)
+    Long jobId;
+
+    @Column(name = "line_number", nullable = false)
+    long lineNumber;
+
+    @Column(name = "message", nullable = false)
+    String message;
+}
@@ -0,0 +1,53 @@
+package com.example.bankcards.entity;
+
+import com.example.bankcards.dto.CardImportFormat;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "card_import_jobs")
+public class CardImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false)
+    CardImportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    CardImportStatus status;
+
+    @Column(name = "rows_processed", nullable = false)
+    long rowsProcessed;
+
+    @Column(name = "rows_imported", nullable = false)
+    long rowsImported;
+
+    @Column(name = "rows_failed", nullable = false)
+    long rowsFailed;
+
+    @Column(name = "created_at", nullable = false)
+    LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    LocalDateTime finishedAt;
+
+    @Column(name = "failure_reason")
+    String failureReason;
+
+    @Column(name = "instance_id")
+    String instanceId;
+}
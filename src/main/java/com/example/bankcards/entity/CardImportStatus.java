@@ -0,0 +1,8 @@
+package com.example.bankcards.entity;
+
+public enum CardImportStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,60 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "card_key_rotations")
+public class CardKeyRotation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "target_key_version", nullable = false)
+    int targetKeyVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    CardKeyRotationStatus status;
+
+    @Column(name = "last_card_id", nullable = false)
+    long lastCardId;
+
+    @Column(name = "max_card_id", nullable = false)
+    long maxCardId;
+
+    @Column(name = "rows_scanned", nullable = false)
+    long rowsScanned;
+
+    @Column(name = "rows_rotated", nullable = false)
+    long rowsRotated;
+
+    @Column(name = "rows_failed", nullable = false)
+    long rowsFailed;
+
+    @Column(name = "started_at", nullable = false)
+    LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    LocalDateTime finishedAt;
+
+    @Column(name = "failure_reason")
+    String failureReason;
+
+    @Column(name = "lease_owner", length = 36)
+    String leaseOwner;
+
+    @Column(name = "lease_until")
+    LocalDateTime leaseUntil;
+}
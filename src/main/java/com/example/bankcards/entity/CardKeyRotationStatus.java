@@ -0,0 +1,8 @@
+package com.example.bankcards.entity;
+
+public enum CardKeyRotationStatus {
+    RUNNING,
+    PAUSED,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,38 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "user_id", nullable = false)
+    Long ownerId;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    String idempotencyKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    String requestHash;
+
+    @Column(name = "transaction_id")
+    Long transactionId;
+
+    @Column(name = "async_transfer_id")
+    Long asyncTransferId;
+
+    @Column(name = "created_at", nullable = false)
+    LocalDateTime createdAt;
+}
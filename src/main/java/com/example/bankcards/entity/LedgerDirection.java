@@ -0,0 +1,13 @@
+package com.example.bankcards.entity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum LedgerDirection {
+    DEBIT("Списание"),
+    CREDIT("Зачисление");
+
+    private final String displayName;
+}
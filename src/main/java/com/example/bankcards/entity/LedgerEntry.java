@@ -0,0 +1,47 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "ledger_entries")
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ledger_entries_id")
+    @TableGenerator(name = "ledger_entries_id", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "ledger_entries", allocationSize = 50)
+    Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "card_id")
+    Card card;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "transaction_id", nullable = false)
+    Transactions transaction;
+
+    @Column(name = "seq", nullable = false)
+    Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "direction", nullable = false, length = 10)
+    LedgerDirection direction;
+
+    @Column(name = "amount", nullable = false)
+    BigDecimal amount;
+
+    @Column(name = "balance_after", nullable = false)
+    BigDecimal balanceAfter;
+
+    @Column(name = "created_at", nullable = false)
+    LocalDateTime createdAt;
+}
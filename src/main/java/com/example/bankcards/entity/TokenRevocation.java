@@ -0,0 +1,23 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "token_revocations")
+public class TokenRevocation {
+
+    @Id
+    @Column(name = "user_id")
+    Long userId;
+
+    @Column(name = "revoked_at", nullable = false)
+    LocalDateTime revokedAt;
+}
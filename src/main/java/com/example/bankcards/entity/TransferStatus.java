@@ -0,0 +1,14 @@
+package com.example.bankcards.entity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum TransferStatus {
+    PENDING("В обработке"),
+    COMPLETED("Выполнен"),
+    REJECTED("Отклонен");
+
+    private final String displayName;
+}
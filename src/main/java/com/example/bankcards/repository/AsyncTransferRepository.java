@@ -0,0 +1,27 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.AsyncTransfer;
+import com.example.bankcards.entity.TransferStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AsyncTransferRepository extends JpaRepository<AsyncTransfer, Long> {
+
+    Optional<AsyncTransfer> findByIdAndOwnerId(Long id, Long ownerId);
+
+    List<AsyncTransfer> findByStatusAndCreatedAtBeforeOrderById(TransferStatus status, LocalDateTime createdBefore,
+                                                                Pageable pageable);
+
+    @Query(value = "SELECT id FROM async_transfers WHERE id IN (:ids) AND status = 'PENDING' ORDER BY id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockPending(@Param("ids") Collection<Long> ids);
+}
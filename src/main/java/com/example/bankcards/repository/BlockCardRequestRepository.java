@@ -1,16 +1,60 @@
 package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.BlockCardRequest;
+import com.example.bankcards.entity.BlockRequestStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface BlockCardRequestRepository extends JpaRepository<BlockCardRequest, Long> {
 
     @Modifying
     @Query("UPDATE BlockCardRequest b SET b.card = NULL WHERE b.card.id = :cardId")
     void setCardToNull(@Param("cardId") Long cardId);
+
+    @Modifying
+    @Query("UPDATE BlockCardRequest b SET b.status = com.example.bankcards.entity.BlockRequestStatus.REJECTED " +
+            "WHERE b.status = com.example.bankcards.entity.BlockRequestStatus.PENDING AND b.card.id = :cardId")
+    int rejectPendingForCard(@Param("cardId") Long cardId);
+
+    boolean existsByCardIdAndStatus(Long cardId, BlockRequestStatus status);
+
+    /**
+     * Walks idx_block_card_request_status_id. A card with several pending requests is
+     * listed once, under its oldest request; requests whose card was deleted have
+     * nothing left to decide and are not listed.
+     */
+    @Query("SELECT new com.example.bankcards.repository.BlockRequestRow(" +
+            "b.id, c.id, c.lastFourNumbers, c.status, b.user.id, b.reason) " +
+            "FROM BlockCardRequest b JOIN b.card c " +
+            "WHERE b.status = com.example.bankcards.entity.BlockRequestStatus.PENDING AND b.id > :after " +
+            "AND NOT EXISTS (SELECT d.id FROM BlockCardRequest d WHERE d.card = b.card " +
+            "AND d.status = com.example.bankcards.entity.BlockRequestStatus.PENDING AND d.id < b.id) " +
+            "ORDER BY b.id")
+    List<BlockRequestRow> findPendingAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT DISTINCT b.card.id FROM BlockCardRequest b " +
+            "WHERE b.id IN :ids AND b.status = com.example.bankcards.entity.BlockRequestStatus.PENDING " +
+            "AND b.card IS NOT NULL")
+    List<Long> findPendingCardIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE BlockCardRequest b SET b.status = com.example.bankcards.entity.BlockRequestStatus.APPROVED " +
+            "WHERE b.status = com.example.bankcards.entity.BlockRequestStatus.PENDING AND b.card.id IN (" +
+            "SELECT c.id FROM Card c WHERE c.id IN :cardIds " +
+            "AND c.status = com.example.bankcards.entity.CardStatus.BLOCKED)")
+    int approvePendingForBlockedCards(@Param("cardIds") Collection<Long> cardIds);
+
+    @Modifying
+    @Query("UPDATE BlockCardRequest b SET b.status = com.example.bankcards.entity.BlockRequestStatus.REJECTED " +
+            "WHERE b.status = com.example.bankcards.entity.BlockRequestStatus.PENDING " +
+            "AND (b.id IN :ids OR b.card.id IN :cardIds)")
+    int rejectPending(@Param("ids") Collection<Long> ids, @Param("cardIds") Collection<Long> cardIds);
 }
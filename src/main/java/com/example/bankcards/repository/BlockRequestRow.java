@@ -0,0 +1,12 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardStatus;
+
+public record BlockRequestRow(
+        Long id,
+        Long cardId,
+        String lastFourNumbers,
+        CardStatus cardStatus,
+        Long userId,
+        String reason) {
+}
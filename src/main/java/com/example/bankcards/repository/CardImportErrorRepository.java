@@ -0,0 +1,14 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardImportError;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CardImportErrorRepository extends JpaRepository<CardImportError, Long> {
+
+    List<CardImportError> findByJobIdAndIdGreaterThanOrderById(Long jobId, Long after, Pageable pageable);
+}
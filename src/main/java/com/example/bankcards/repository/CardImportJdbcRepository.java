@@ -0,0 +1,22 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardImportError;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class CardImportJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertErrors(List<CardImportError> errors) {
+        jdbcTemplate.batchUpdate("INSERT INTO card_import_errors (job_id, line_number, message) VALUES (?, ?, ?)",
+                errors.stream()
+                        .map(error -> new Object[]{error.getJobId(), error.getLineNumber(), error.getMessage()})
+                        .toList());
+    }
+}
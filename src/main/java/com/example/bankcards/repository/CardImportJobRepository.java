@@ -0,0 +1,29 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface CardImportJobRepository extends JpaRepository<CardImportJob, Long> {
+
+    /**
+     * Jobs recorded before instance_id existed have no owner and count as this
+     * instance's as well.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CardImportJob j SET j.status = com.example.bankcards.entity.CardImportStatus.FAILED, " +
+            "j.failureReason = :failureReason, j.updatedAt = :now, j.finishedAt = :now " +
+            "WHERE j.status IN (com.example.bankcards.entity.CardImportStatus.PENDING, " +
+            "com.example.bankcards.entity.CardImportStatus.RUNNING) " +
+            "AND (j.instanceId IS NULL OR j.instanceId = :instanceId)")
+    int failInterrupted(@Param("instanceId") String instanceId, @Param("failureReason") String failureReason,
+                        @Param("now") LocalDateTime now);
+}
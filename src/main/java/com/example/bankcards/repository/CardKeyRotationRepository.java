@@ -0,0 +1,60 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardKeyRotation;
+import com.example.bankcards.entity.CardKeyRotationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface CardKeyRotationRepository extends JpaRepository<CardKeyRotation, Long> {
+
+    Optional<CardKeyRotation> findFirstByOrderByIdDesc();
+
+    Optional<CardKeyRotation> findFirstByStatusOrderByIdDesc(CardKeyRotationStatus status);
+
+    /**
+     * Takes over a running rotation whose lease is free or expired; at most one
+     * instance gets 1 back.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CardKeyRotation r SET r.leaseOwner = :owner, r.leaseUntil = :leaseUntil " +
+            "WHERE r.id = :id AND r.status = com.example.bankcards.entity.CardKeyRotationStatus.RUNNING " +
+            "AND (r.leaseOwner IS NULL OR r.leaseOwner = :owner OR r.leaseUntil < :now)")
+    int claim(@Param("id") Long id, @Param("owner") String owner,
+              @Param("leaseUntil") LocalDateTime leaseUntil, @Param("now") LocalDateTime now);
+
+    /**
+     * Runs first in every chunk transaction and keeps the row locked until the
+     * checkpoint commits; 0 means the run was paused or taken over elsewhere.
+     */
+    @Modifying
+    @Query("UPDATE CardKeyRotation r SET r.leaseUntil = :leaseUntil " +
+            "WHERE r.id = :id AND r.leaseOwner = :owner " +
+            "AND r.status = com.example.bankcards.entity.CardKeyRotationStatus.RUNNING")
+    int renewLease(@Param("id") Long id, @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CardKeyRotation r SET r.status = com.example.bankcards.entity.CardKeyRotationStatus.PAUSED, " +
+            "r.leaseOwner = NULL, r.leaseUntil = NULL, r.updatedAt = :now " +
+            "WHERE r.id = :id AND r.status = com.example.bankcards.entity.CardKeyRotationStatus.RUNNING")
+    int pause(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CardKeyRotation r SET r.status = :status, r.failureReason = :failureReason, " +
+            "r.updatedAt = :now, r.finishedAt = :finishedAt, r.leaseOwner = NULL, r.leaseUntil = NULL " +
+            "WHERE r.id = :id AND r.leaseOwner = :owner " +
+            "AND r.status = com.example.bankcards.entity.CardKeyRotationStatus.RUNNING")
+    int finish(@Param("id") Long id, @Param("owner") String owner, @Param("status") CardKeyRotationStatus status,
+               @Param("failureReason") String failureReason, @Param("finishedAt") LocalDateTime finishedAt,
+               @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,8 @@
+package com.example.bankcards.repository;
+
+public interface CardLedgerPosition {
+
+    Long getCardId();
+
+    Long getSeq();
+}
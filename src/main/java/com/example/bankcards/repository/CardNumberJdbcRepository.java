@@ -0,0 +1,61 @@
+package com.example.bankcards.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+public class CardNumberJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long findMaxCardId() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cards", Long.class);
+        return maxId != null ? maxId : 0L;
+    }
+
+    public List<CardNumberRow> findChunk(long afterId, long maxId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, card_number, card_number_hash FROM cards WHERE id > ? AND id <= ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new CardNumberRow(rs.getLong("id"), rs.getString("card_number"),
+                        rs.getString("card_number_hash")),
+                afterId, maxId, limit);
+    }
+
+    public Set<String> findExistingHashes(Collection<String> cardNumberHashes) {
+        if (cardNumberHashes.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(",", Collections.nCopies(cardNumberHashes.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT card_number_hash FROM cards WHERE card_number_hash IN (" + placeholders + ")",
+                String.class, cardNumberHashes.toArray()));
+    }
+
+    /**
+     * Each row is only replaced while it still holds the value that was read, so a
+     * card number changed concurrently is left alone rather than overwritten.
+     */
+    public int replaceCardNumbers(List<CardNumberRow> rows, List<String> replacements, List<String> hashes) {
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            args.add(new Object[]{replacements.get(i), hashes.get(i), rows.get(i).id(), rows.get(i).cardNumber()});
+        }
+        int replaced = 0;
+        for (int count : jdbcTemplate.batchUpdate(
+                "UPDATE cards SET card_number = ?, card_number_hash = ? WHERE id = ? AND card_number = ?", args)) {
+            if (count != 0) {
+                replaced++;
+            }
+        }
+        return replaced;
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.bankcards.repository;
+
+public record CardNumberRow(Long id, String cardNumber, String cardNumberHash) {
+}
@@ -0,0 +1,18 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record CardPageRow(
+        Long id,
+        String lastFourNumbers,
+        LocalDate expiryDate,
+        BigDecimal balance,
+        CardStatus status,
+        Long ownerId,
+        String ownerFirstName,
+        String ownerLastName,
+        String ownerEmail) {
+}
@@ -1,15 +1,73 @@
 package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface CardRepository extends JpaRepository<Card, Long> {
+public interface CardRepository extends JpaRepository<Card, Long>, CardSearchRepository {
 
-    Page<Card> findByOwnerId(Long ownerId, Pageable pageable);
+    String CARD_PAGE_SELECT = "SELECT new com.example.bankcards.repository.CardPageRow(" +
+            "c.id, c.lastFourNumbers, c.expiryDate, c.balance, c.status, " +
+            "o.id, o.firstName, o.lastName, o.email) " +
+            "FROM Card c JOIN c.owner o";
 
     boolean existsByIdAndOwnerId(Long cardId, Long ownerId);
+
+    boolean existsByCardNumberHash(String cardNumberHash);
+
+    @Query(CARD_PAGE_SELECT + " WHERE c.cardNumberHash = :hash")
+    Optional<CardPageRow> findPageRowByCardNumberHash(@Param("hash") String cardNumberHash);
+
+    @Query("SELECT c.id FROM Card c WHERE c.cardNumberHash = :hash AND c.owner.id = :ownerId")
+    Optional<Long> findIdByCardNumberHashAndOwnerId(@Param("hash") String cardNumberHash, @Param("ownerId") Long ownerId);
+
+    @Query(value = CARD_PAGE_SELECT, countQuery = "SELECT COUNT(c) FROM Card c")
+    Page<CardPageRow> findPage(Pageable pageable);
+
+    @Query(CARD_PAGE_SELECT + " WHERE c.id > :after ORDER BY c.id")
+    List<CardPageRow> findPageAfter(@Param("after") Long after, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Card c SET c.balance = c.balance - :amount " +
+            "WHERE c.id = :cardId AND c.owner.id = :ownerId " +
+            "AND c.status = com.example.bankcards.entity.CardStatus.ACTIVE AND c.balance >= :amount")
+    int debit(@Param("cardId") Long cardId, @Param("ownerId") Long ownerId, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE Card c SET c.balance = c.balance + :amount " +
+            "WHERE c.id = :cardId AND c.owner.id = :ownerId " +
+            "AND c.status = com.example.bankcards.entity.CardStatus.ACTIVE")
+    int credit(@Param("cardId") Long cardId, @Param("ownerId") Long ownerId, @Param("amount") BigDecimal amount);
+
+    /**
+     * Same rule as blocking a single card: only cards with a zero balance are blocked.
+     */
+    @Modifying
+    @Query("UPDATE Card c SET c.status = com.example.bankcards.entity.CardStatus.BLOCKED " +
+            "WHERE c.id IN :ids AND c.status <> com.example.bankcards.entity.CardStatus.BLOCKED AND c.balance = 0")
+    int blockWithZeroBalance(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Changes only the status column, so a concurrent rewrite of the card number
+     * (key rotation) is never overwritten with a value read before it.
+     */
+    @Modifying
+    @Query("UPDATE Card c SET c.status = :status WHERE c.id = :cardId")
+    int updateStatus(@Param("cardId") Long cardId, @Param("status") CardStatus status);
+
+    @Query(value = "SELECT id AS id, user_id AS ownerId, status AS status, balance AS balance " +
+            "FROM cards WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<CardTransferState> lockForTransfer(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,56 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+/**
+ * Criteria counterpart of {@link CardRepository#CARD_PAGE_SELECT}: the same card row with
+ * the owner reference, restricted by a specification, plus one count query.
+ */
+class CardSearchRepositoryImpl implements CardSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<CardPageRow> searchPage(Specification<Card> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CardPageRow> query = cb.createQuery(CardPageRow.class);
+        Root<Card> card = query.from(Card.class);
+        Join<Card, User> owner = card.join("owner");
+
+        query.select(cb.construct(CardPageRow.class,
+                card.get("id"), card.get("lastFourNumbers"), card.get("expiryDate"), card.get("balance"),
+                card.get("status"), owner.get("id"), owner.get("firstName"), owner.get("lastName"),
+                owner.get("email")));
+        query.where(specification.toPredicate(card, query, cb));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), card, cb));
+
+        List<CardPageRow> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(specification));
+    }
+
+    private long count(Specification<Card> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Card> card = query.from(Card.class);
+        query.select(cb.count(card)).where(specification.toPredicate(card, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class CardSpecifications {
+
+    private CardSpecifications() {
+    }
+
+    public static Specification<Card> ownedBy(Long ownerId) {
+        return (root, query, cb) -> cb.equal(root.get("owner").get("id"), ownerId);
+    }
+
+    public static Specification<Card> hasStatus(CardStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * Prefix match on the stored last four digits, so it stays a range scan on
+     * (user_id, status, last_four_digits); the value must contain digits only.
+     */
+    public static Specification<Card> lastFourStartsWith(String digits) {
+        return (root, query, cb) -> cb.like(root.get("lastFourNumbers"), digits + "%");
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.bankcards.repository;
+
+import java.math.BigDecimal;
+
+public interface CardTransferState {
+
+    Long getId();
+
+    Long getOwnerId();
+
+    String getStatus();
+
+    BigDecimal getBalance();
+}
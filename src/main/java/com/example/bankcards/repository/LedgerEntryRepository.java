@@ -0,0 +1,19 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long>, JpaSpecificationExecutor<LedgerEntry> {
+
+    @Query("SELECT e.card.id AS cardId, MAX(e.seq) AS seq FROM LedgerEntry e " +
+            "WHERE e.card.id IN :cardIds GROUP BY e.card.id")
+    List<CardLedgerPosition> findLastPositions(@Param("cardIds") Collection<Long> cardIds);
+}
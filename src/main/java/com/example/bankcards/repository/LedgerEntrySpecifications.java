@@ -0,0 +1,54 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.TransactionHistoryRequest;
+import com.example.bankcards.entity.LedgerEntry;
+import com.example.bankcards.util.KeysetCursor;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class LedgerEntrySpecifications {
+
+    private LedgerEntrySpecifications() {
+    }
+
+    /**
+     * Only the filters that were actually sent become predicates, so the database
+     * can seek on (card_id[, direction], created_at, id) instead of scanning the card's
+     * whole history. The cursor resumes strictly after the last row of the previous page.
+     */
+    public static Specification<LedgerEntry> history(Long cardId, TransactionHistoryRequest request, KeysetCursor cursor) {
+        return (root, query, cb) -> {
+            root.fetch("transaction", JoinType.INNER);
+
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("card").get("id"), cardId));
+            if (request.getDirection() != null) {
+                predicates.add(cb.equal(root.get("direction"), request.getDirection()));
+            }
+            if (request.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), request.getFrom()));
+            }
+            if (request.getTo() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), request.getTo()));
+            }
+            if (request.getMinAmount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("amount"), request.getMinAmount()));
+            }
+            if (request.getMaxAmount() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("amount"), request.getMaxAmount()));
+            }
+            if (cursor != null) {
+                predicates.add(cb.or(
+                        cb.lessThan(root.<LocalDateTime>get("createdAt"), cursor.createdAt()),
+                        cb.and(cb.equal(root.get("createdAt"), cursor.createdAt()),
+                                cb.lessThan(root.get("id"), cursor.id()))));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
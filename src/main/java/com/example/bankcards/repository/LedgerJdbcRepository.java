@@ -0,0 +1,77 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.CardTransactionDto;
+import com.example.bankcards.entity.LedgerDirection;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+@Slf4j
+@Repository
+public class LedgerJdbcRepository {
+
+    private static final String STATEMENT_SQL = """
+            SELECT e.id, e.transaction_id, e.direction, e.amount, e.balance_after, e.created_at, t.description,
+                   CASE WHEN e.direction = 'DEBIT' THEN t.to_card_id ELSE t.from_card_id END AS counterpart_card_id
+            FROM ledger_entries e
+            JOIN transactions t ON t.id = e.transaction_id
+            WHERE e.card_id = ? AND e.created_at >= ? AND e.created_at < ?
+            ORDER BY e.created_at, e.id""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+    private final String datasourceUrl;
+
+    public LedgerJdbcRepository(JdbcTemplate jdbcTemplate,
+                                @Value("${app.statement.fetch-size:1000}") int fetchSize,
+                                @Value("${spring.datasource.url:}") String datasourceUrl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        this.datasourceUrl = datasourceUrl;
+    }
+
+    /**
+     * Without useCursorFetch Connector/J reads the whole result into memory before the
+     * first row is handed over, which defeats streaming for large statements.
+     */
+    @PostConstruct
+    void checkCursorFetch() {
+        if (datasourceUrl.startsWith("jdbc:mysql:") && !datasourceUrl.contains("useCursorFetch=true")) {
+            log.warn("spring.datasource.url has no useCursorFetch=true; statement exports will buffer every row in memory");
+        }
+    }
+
+    /**
+     * Hands rows to the consumer one at a time from a forward-only cursor; nothing is
+     * collected and no entity is managed, so memory does not depend on the row count.
+     * MySQL only streams with a positive fetch size when the URL has useCursorFetch=true.
+     */
+    public void streamStatement(Long cardId, LocalDateTime from, LocalDateTime to, Consumer<CardTransactionDto> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(STATEMENT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, cardId);
+            statement.setTimestamp(2, Timestamp.valueOf(from));
+            statement.setTimestamp(3, Timestamp.valueOf(to));
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(new CardTransactionDto(
+                rs.getLong("id"),
+                rs.getLong("transaction_id"),
+                LedgerDirection.valueOf(rs.getString("direction")),
+                rs.getBigDecimal("amount"),
+                rs.getBigDecimal("balance_after"),
+                rs.getObject("counterpart_card_id", Long.class),
+                rs.getString("description"),
+                rs.getTimestamp("created_at").toLocalDateTime())));
+    }
+}
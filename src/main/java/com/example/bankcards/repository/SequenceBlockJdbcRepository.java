@@ -0,0 +1,36 @@
+package com.example.bankcards.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@RequiredArgsConstructor
+public class SequenceBlockJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserves blockSize values of a named sequence in id_sequences and returns the
+     * first one. The increment locks the row until the caller's transaction commits,
+     * so concurrent reservations from any node get disjoint blocks. A missing row is
+     * created on first use.
+     */
+    public long reserve(String sequenceName, int blockSize) {
+        int updated = jdbcTemplate.update(
+                "UPDATE id_sequences SET next_val = next_val + ? WHERE sequence_name = ?", blockSize, sequenceName);
+        if (updated == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO id_sequences (sequence_name, next_val) VALUES (?, ?)",
+                        sequenceName, blockSize);
+                return 0;
+            } catch (DuplicateKeyException e) {
+                return reserve(sequenceName, blockSize);
+            }
+        }
+        Long nextVal = jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_sequences WHERE sequence_name = ?", Long.class, sequenceName);
+        return nextVal - blockSize;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.AsyncTransfer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class TransferJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void addToBalances(Map<Long, BigDecimal> deltas) {
+        jdbcTemplate.batchUpdate("UPDATE cards SET balance = balance + ? WHERE id = ?",
+                deltas.entrySet().stream()
+                        .map(delta -> new Object[]{delta.getValue(), delta.getKey()})
+                        .toList());
+    }
+
+    public void updateAsyncTransfers(List<AsyncTransfer> transfers) {
+        jdbcTemplate.batchUpdate("UPDATE async_transfers SET status = ?, failure_reason = ?, processed_at = ? WHERE id = ?",
+                transfers.stream()
+                        .map(transfer -> new Object[]{
+                                transfer.getStatus().name(),
+                                transfer.getFailureReason(),
+                                Timestamp.valueOf(transfer.getProcessedAt()),
+                                transfer.getId()})
+                        .toList());
+    }
+}
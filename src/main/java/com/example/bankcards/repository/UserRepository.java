@@ -1,15 +1,42 @@
 package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    String USER_SUMMARY_SELECT = "SELECT new com.example.bankcards.repository.UserSummaryRow(" +
+            "u.id, u.firstName, u.lastName, u.email, COUNT(c), COALESCE(SUM(c.balance), 0)) " +
+            "FROM User u LEFT JOIN u.cards c";
+
+    String USER_SUMMARY_GROUP_BY = " GROUP BY u.id, u.firstName, u.lastName, u.email";
+
+    @Query(value = USER_SUMMARY_SELECT + USER_SUMMARY_GROUP_BY, countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserSummaryRow> findSummaries(Pageable pageable);
+
+    @Query(USER_SUMMARY_SELECT + " WHERE u.id > :after" + USER_SUMMARY_GROUP_BY + " ORDER BY u.id")
+    List<UserSummaryRow> findSummariesAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query(USER_SUMMARY_SELECT + " WHERE u.id = :userId" + USER_SUMMARY_GROUP_BY)
+    Optional<UserSummaryRow> findSummaryById(@Param("userId") Long userId);
+
     Optional<User> findUserByEmail(String email);
 
     Boolean existsByEmail(String username);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
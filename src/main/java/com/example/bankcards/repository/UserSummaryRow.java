@@ -0,0 +1,12 @@
+package com.example.bankcards.repository;
+
+import java.math.BigDecimal;
+
+public record UserSummaryRow(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        Long cardsCount,
+        BigDecimal totalBalance) {
+}
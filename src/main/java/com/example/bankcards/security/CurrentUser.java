@@ -0,0 +1,19 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.exception.UserNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+public final class CurrentUser {
+
+    private CurrentUser() {
+    }
+
+    public static Long id() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        throw new UserNotFoundException("User not found");
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.TokenRevocation;
+import com.example.bankcards.repository.TokenRevocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens of a user issued up to the moment of revocation are rejected. An entry is only
+ * needed while such tokens can still be unexpired, so the map stays as small as the number
+ * of users changed within one token lifetime. Revocations are written to token_revocations
+ * and every instance reloads them on a schedule, so a revocation survives restarts and
+ * reaches the other instances within one refresh interval; checks never touch the database.
+ */
+@Slf4j
+@Component
+public class TokenRevocationRegistry {
+
+    private final Map<Long, Instant> revokedUntil = new ConcurrentHashMap<>();
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final Duration tokenLifetime;
+
+    public TokenRevocationRegistry(TokenRevocationRepository tokenRevocationRepository,
+                                   @Value("${jwt.lifetime}") Duration tokenLifetime) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.tokenLifetime = tokenLifetime;
+    }
+
+    public void revokeUser(Long userId) {
+        Instant revokedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        tokenRevocationRepository.save(new TokenRevocation(userId, toLocal(revokedAt)));
+        revokedUntil.merge(userId, revokedAt, TokenRevocationRegistry::later);
+    }
+
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        Instant revokedAt = revokedUntil.get(userId);
+        return revokedAt != null && (issuedAt == null || !issuedAt.toInstant().isAfter(revokedAt));
+    }
+
+    /**
+     * Also runs right after startup, which loads the revocations still in force.
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation-refresh-interval:PT15S}")
+    public void refresh() {
+        LocalDateTime since = toLocal(Instant.now().minus(tokenLifetime));
+        try {
+            for (TokenRevocation revocation : tokenRevocationRepository.findByRevokedAtGreaterThanEqual(since)) {
+                revokedUntil.merge(revocation.getUserId(),
+                        revocation.getRevokedAt().atZone(ZoneId.systemDefault()).toInstant(),
+                        TokenRevocationRegistry::later);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh token revocations, keeping {} known entries", revokedUntil.size(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.revocation-cleanup-interval:PT10M}")
+    public void purgeExpired() {
+        Instant threshold = Instant.now().minus(tokenLifetime);
+        revokedUntil.values().removeIf(revokedAt -> revokedAt.isBefore(threshold));
+        tokenRevocationRepository.deleteRevokedBefore(toLocal(threshold));
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
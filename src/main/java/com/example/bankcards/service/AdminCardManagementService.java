@@ -1,7 +1,17 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.BlockRequestDecisionRequest;
+import com.example.bankcards.dto.BlockRequestDecisionResponse;
+import com.example.bankcards.dto.BlockRequestDto;
 import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardImportErrorDto;
+import com.example.bankcards.dto.CardImportFormat;
+import com.example.bankcards.dto.CardImportJobDto;
+import com.example.bankcards.dto.CardKeyRotationDto;
 import com.example.bankcards.dto.CreateCardRequest;
+import com.example.bankcards.dto.KeysetSlice;
+import com.example.bankcards.dto.TransferContentionDto;
+import com.example.bankcards.entity.BlockRequestStatus;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.User;
@@ -9,49 +19,105 @@ import com.example.bankcards.exception.CardNotFoundException;
 import com.example.bankcards.exception.CardOperationException;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.repository.BlockCardRequestRepository;
+import com.example.bankcards.repository.BlockRequestRow;
+import com.example.bankcards.repository.CardPageRow;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.TransactionRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.util.CardEncryptor;
 import com.example.bankcards.util.CardMasker;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.CardNumbers;
+import com.example.bankcards.util.TransferContentionMetrics;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class AdminCardManagementService {
 
+    private static final int MAX_BLOCK_DECISIONS = 1000;
+    private static final String DUPLICATE_NUMBER = "Карта с таким номером уже существует";
+    private static final String ISSUING_BIN_NUMBER = "Номера из BIN банка выпускаются автоматически, не указывайте cardNumber";
+
     private final CardRepository cardRepository;
     private final UserRepository userRepository;
     private final TransactionRepository transactionRepository;
     private final BlockCardRequestRepository blockCardRequestRepository;
+    private final TransferContentionMetrics transferContentionMetrics;
+    private final CardEncryptor cardEncryptor;
+    private final CardNumberHasher cardNumberHasher;
+    private final CardNumberIssuer cardNumberIssuer;
+    private final CardKeyRotationService cardKeyRotationService;
+    private final CardImportService cardImportService;
 
     public CardDto createCard(CreateCardRequest request) {
         User owner = userRepository.findById(request.getOwnerId()).orElseThrow(() -> new UserNotFoundException("Пользователь не найден"));
 
+        String cardNumber = request.getCardNumber() != null ? CardNumbers.normalize(request.getCardNumber())
+                : cardNumberIssuer.issue();
+        if (cardNumber == null) {
+            throw new CardOperationException("Номер карты должен состоять из 16 цифр");
+        }
+        if (request.getCardNumber() != null && cardNumberIssuer.isInIssuingBin(cardNumber)) {
+            throw new CardOperationException(ISSUING_BIN_NUMBER);
+        }
+        String cardNumberHash = cardNumberHasher.hash(cardNumber);
+        if (request.getCardNumber() != null && cardRepository.existsByCardNumberHash(cardNumberHash)) {
+            throw new CardOperationException(DUPLICATE_NUMBER);
+        }
+
         Card card = Card.builder()
                 .owner(owner)
-                .cardNumber(CardEncryptor.encrypt(request.getCardNumber()))
-                .lastFourNumbers(CardMasker.getLastNums(request.getCardNumber()))
+                .cardNumber(cardEncryptor.encrypt(cardNumber))
+                .cardNumberHash(cardNumberHash)
+                .lastFourNumbers(CardMasker.getLastNums(cardNumber))
                 .expiryDate(request.getExpiryDate())
                 .status(CardStatus.ACTIVE)
                 .balance(request.getInitialBalance() != null ? request.getInitialBalance() : BigDecimal.ZERO)
                 .build();
 
-        Card savedCard = cardRepository.save(card);
-        return CardDto.from(savedCard);
+        try {
+            return CardDto.from(cardRepository.saveAndFlush(card));
+        } catch (DataIntegrityViolationException e) {
+            throw new CardOperationException(DUPLICATE_NUMBER);
+        }
     }
 
     public Page<CardDto> getAllCards(Pageable pageable) {
-        return cardRepository.findAll(pageable)
+        return cardRepository.findPage(pageable)
                 .map(CardDto::from);
     }
 
+    @Transactional(readOnly = true)
+    public CardDto findCardByNumber(String cardNumber) {
+        String normalized = CardNumbers.normalize(cardNumber);
+        if (normalized == null) {
+            throw new CardOperationException("Номер карты должен состоять из 16 цифр");
+        }
+        return cardRepository.findPageRowByCardNumberHash(cardNumberHasher.hash(normalized))
+                .map(CardDto::from)
+                .orElseThrow(() -> new CardNotFoundException("Карта не найдена"));
+    }
+
+    public KeysetSlice<CardDto> getCardsAfter(Long after, int limit) {
+        if (limit < 1 || limit > KeysetSlice.MAX_LIMIT) {
+            throw new CardOperationException("Размер страницы должен быть от 1 до " + KeysetSlice.MAX_LIMIT);
+        }
+        List<CardPageRow> rows = cardRepository.findPageAfter(after, PageRequest.ofSize(limit + 1));
+        return KeysetSlice.of(rows, limit, CardPageRow::id, CardDto::from);
+    }
+
     public void deleteCard(Long cardId) {
         Card card = cardRepository.findById(cardId).orElseThrow(() -> new CardNotFoundException("Карта не найдена"));
 
@@ -61,6 +127,7 @@ public class AdminCardManagementService {
 
         transactionRepository.setFromCardToNull(cardId);
         transactionRepository.setToCardToNull(cardId);
+        blockCardRequestRepository.rejectPendingForCard(cardId);
         blockCardRequestRepository.setCardToNull(cardId);
 
         cardRepository.delete(card);
@@ -73,8 +140,7 @@ public class AdminCardManagementService {
             throw new CardOperationException("Карта просрочена");
         }
 
-        card.setStatus(CardStatus.ACTIVE);
-        cardRepository.save(card);
+        cardRepository.updateStatus(cardId, CardStatus.ACTIVE);
     }
 
     public void blockCard(Long cardId) {
@@ -84,7 +150,77 @@ public class AdminCardManagementService {
             throw new CardOperationException("Баланс карты должен быть нулевым");
         }
 
-        card.setStatus(CardStatus.BLOCKED);
-        cardRepository.save(card);
+        if (card.getStatus() != CardStatus.BLOCKED && cardRepository.blockWithZeroBalance(List.of(cardId)) == 0) {
+            throw new CardOperationException("Баланс карты должен быть нулевым");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetSlice<BlockRequestDto> getPendingBlockRequests(Long after, int limit) {
+        if (limit < 1 || limit > KeysetSlice.MAX_LIMIT) {
+            throw new CardOperationException("Размер страницы должен быть от 1 до " + KeysetSlice.MAX_LIMIT);
+        }
+        List<BlockRequestRow> rows = blockCardRequestRepository.findPendingAfter(after, PageRequest.ofSize(limit + 1));
+        return KeysetSlice.of(rows, limit, BlockRequestRow::id, BlockRequestDto::from);
+    }
+
+    /**
+     * Decides a set of block requests with three statements, none of which loads an
+     * entity. A decision applies to every pending request of the same card, so
+     * duplicates collapse with it. Approval blocks cards under the same zero-balance
+     * rule as {@link #blockCard}; requests whose card could not be blocked stay
+     * pending and remain in the queue.
+     */
+    public BlockRequestDecisionResponse decideBlockRequests(BlockRequestDecisionRequest request) {
+        List<Long> requestIds = request.getRequestIds();
+        if (requestIds == null || requestIds.isEmpty() || requestIds.size() > MAX_BLOCK_DECISIONS) {
+            throw new CardOperationException("В одном решении должно быть от 1 до " + MAX_BLOCK_DECISIONS + " заявок");
+        }
+        if (request.getDecision() == null || request.getDecision() == BlockRequestStatus.PENDING) {
+            throw new CardOperationException("Решение должно быть APPROVED или REJECTED");
+        }
+
+        List<Long> cardIds = blockCardRequestRepository.findPendingCardIds(requestIds);
+        if (request.getDecision() == BlockRequestStatus.REJECTED) {
+            int rejected = blockCardRequestRepository.rejectPending(requestIds, cardIds);
+            return new BlockRequestDecisionResponse(BlockRequestStatus.REJECTED, rejected, 0);
+        }
+        if (cardIds.isEmpty()) {
+            return new BlockRequestDecisionResponse(BlockRequestStatus.APPROVED, 0, 0);
+        }
+        int blocked = cardRepository.blockWithZeroBalance(cardIds);
+        int approved = blockCardRequestRepository.approvePendingForBlockedCards(cardIds);
+        return new BlockRequestDecisionResponse(BlockRequestStatus.APPROVED, approved, blocked);
+    }
+
+    public TransferContentionDto getTransferContention() {
+        return transferContentionMetrics.snapshot();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CardKeyRotationDto startKeyRotation() {
+        return cardKeyRotationService.startRotation();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CardKeyRotationDto pauseKeyRotation() {
+        return cardKeyRotationService.pauseRotation();
+    }
+
+    public CardKeyRotationDto getKeyRotation() {
+        return cardKeyRotationService.getProgress();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CardImportJobDto importCards(InputStream body, CardImportFormat format) {
+        return cardImportService.submit(body, format);
+    }
+
+    public CardImportJobDto getImportJob(Long jobId) {
+        return cardImportService.getJob(jobId);
+    }
+
+    public KeysetSlice<CardImportErrorDto> getImportErrors(Long jobId, Long after, int limit) {
+        return cardImportService.getErrors(jobId, after, limit);
     }
 }
@@ -1,17 +1,24 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.BulkCreateUsersRequest;
+import com.example.bankcards.dto.BulkCreateUsersResponse;
 import com.example.bankcards.dto.CreateUserRequest;
+import com.example.bankcards.dto.KeysetSlice;
+import com.example.bankcards.dto.PasswordHashingStatsDto;
 import com.example.bankcards.dto.UpdateUserRequest;
 import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.exception.UserOperationException;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.repository.UserSummaryRow;
+import com.example.bankcards.security.TokenRevocationRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.util.List;
@@ -22,15 +29,17 @@ import java.util.List;
 public class AdminUserManagementService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final RoleService roleService;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final UserProvisioningService userProvisioningService;
 
     public UserDto createUser(CreateUserRequest createUserRequest) {
         User user = User.builder()
                 .firstName(createUserRequest.firstName())
                 .lastName(createUserRequest.lastName())
                 .email(createUserRequest.email())
-                .password(passwordEncoder.encode(createUserRequest.password()))
+                .password(passwordHashingService.encode(createUserRequest.password()))
                 .roles(List.of(roleService.getUserRole()))
                 .build();
 
@@ -38,14 +47,32 @@ public class AdminUserManagementService {
         return UserDto.from(savedUser);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkCreateUsersResponse createUsers(BulkCreateUsersRequest request) {
+        return userProvisioningService.createUsers(request);
+    }
+
     public Page<UserDto> getAllUsers(Pageable pageable) {
-        return userRepository.findAll(pageable)
+        return userRepository.findSummaries(pageable)
                 .map(UserDto::from);
     }
 
+    public KeysetSlice<UserDto> getUsersAfter(Long after, int limit) {
+        if (limit < 1 || limit > KeysetSlice.MAX_LIMIT) {
+            throw new UserOperationException("Размер страницы должен быть от 1 до " + KeysetSlice.MAX_LIMIT);
+        }
+        List<UserSummaryRow> rows = userRepository.findSummariesAfter(after, PageRequest.ofSize(limit + 1));
+        return KeysetSlice.of(rows, limit, UserSummaryRow::id, UserDto::from);
+    }
+
+    public PasswordHashingStatsDto getPasswordHashingStats() {
+        return passwordHashingService.getStats();
+    }
+
     public UserDto getUserById(Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException("User not found: " + userId));
-        return UserDto.from(user);
+        return userRepository.findSummaryById(userId)
+                .map(UserDto::from)
+                .orElseThrow(() -> new UserNotFoundException("User not found: " + userId));
     }
 
     public UserDto updateUser(Long userId, UpdateUserRequest request) {
@@ -64,6 +91,7 @@ public class AdminUserManagementService {
             }
 
             user.setEmail(request.email());
+            tokenRevocationRegistry.revokeUser(userId);
         }
         User updatedUser = userRepository.save(user);
         return UserDto.from(updatedUser);
@@ -77,6 +105,7 @@ public class AdminUserManagementService {
         }
 
         userRepository.delete(user);
+        tokenRevocationRegistry.revokeUser(userId);
 
 
     }
@@ -3,17 +3,19 @@ package com.example.bankcards.service;
 import com.example.bankcards.dto.*;
 import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InvalidRefreshTokenException;
 import com.example.bankcards.exception.RoleNotFoundException;
 import com.example.bankcards.exception.UserOperationException;
 import com.example.bankcards.repository.RoleRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.util.JwtTokenUtil;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Set;
 
@@ -23,8 +25,9 @@ public class AuthenticationService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenUtil jwtTokenUtil;
+    private final RefreshTokenService refreshTokenService;
 
     public JwtResponse register(CreateUserRequest request) {
         if (userRepository.existsByEmail(request.email())) {
@@ -38,43 +41,56 @@ public class AuthenticationService {
                 .firstName(request.firstName())
                 .lastName(request.lastName())
                 .email(request.email())
-                .password(passwordEncoder.encode(request.password()))
+                .password(passwordHashingService.encode(request.password()))
                 .roles(Set.of(userRole))
                 .build();
 
         User savedUser = userRepository.save(user);
         String token = jwtTokenUtil.generateToken(savedUser);
-        return new JwtResponse(token);
+        return new JwtResponse(token, refreshTokenService.issue(savedUser));
     }
 
     public JwtResponse login(JwtRequest request) {
         User user = userRepository.findUserByEmail(request.email())
                 .orElseThrow(() -> new UserOperationException("User with email" + request.email() + "already exists"));
 
-        if (!passwordEncoder.matches(request.password(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.password(), user.getPassword())) {
             throw new BadCredentialsException("Invalid email or password");
         }
 
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHashingService.encode(request.password()));
+            userRepository.save(user);
+        }
+
         if (!user.isEnabled()) {
             throw new DisabledException("User account is disabled");
         }
 
         String token = jwtTokenUtil.generateToken(user);
-        return new JwtResponse(token);
+        return new JwtResponse(token, refreshTokenService.issue(user));
+    }
+
+    /**
+     * Trades a refresh token for a new access and refresh token pair without
+     * checking the password again.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public JwtResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.refreshToken());
+        return new JwtResponse(jwtTokenUtil.generateToken(rotation.user()), rotation.refreshToken());
     }
 
     public ValidateTokenResponse validateToken(String token) {
 
         try {
-            if (jwtTokenUtil.validateToken(token)) {
-                String username = jwtTokenUtil.getUsername(token);
-                User user = userRepository.findUserByEmail(username)
-                        .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-                return new ValidateTokenResponse(true, "Token is valid", UserDto.from(user));
-            } else {
-                return new ValidateTokenResponse(false, "Token is invalid", null);
-            }
+            String username = jwtTokenUtil.getAllClaimsFromToken(token).getSubject();
+            User user = userRepository.findUserByEmail(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+
+            return new ValidateTokenResponse(true, "Token is valid", UserDto.from(user));
+        } catch (JwtException | IllegalArgumentException e) {
+            return new ValidateTokenResponse(false, "Token is invalid", null);
         } catch (Exception e) {
             return new ValidateTokenResponse(false, "Token validation failed: " + e.getMessage(), null);
         }
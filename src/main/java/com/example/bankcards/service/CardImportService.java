@@ -0,0 +1,525 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardImportErrorDto;
+import com.example.bankcards.dto.CardImportFormat;
+import com.example.bankcards.dto.CardImportJobDto;
+import com.example.bankcards.dto.CreateCardRequest;
+import com.example.bankcards.dto.KeysetSlice;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardImportError;
+import com.example.bankcards.entity.CardImportJob;
+import com.example.bankcards.entity.CardImportStatus;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.exception.ImportJobNotFoundException;
+import com.example.bankcards.exception.ServiceOverloadedException;
+import com.example.bankcards.repository.CardImportErrorRepository;
+import com.example.bankcards.repository.CardImportJdbcRepository;
+import com.example.bankcards.repository.CardImportJobRepository;
+import com.example.bankcards.repository.CardNumberJdbcRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardEncryptor;
+import com.example.bankcards.util.CardMasker;
+import com.example.bankcards.util.CardNumberHasher;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk card import. The upload is copied to a temporary file as it arrives, so the
+ * request never holds the file in memory, and a single worker then reads it back line
+ * by line in chunks. Per chunk: owners are checked with one query, numbers are
+ * encrypted and hashed on a pool sized to the cores, cards go out as Hibernate JDBC
+ * batches, and cards, row errors and job progress commit together. The spooled file
+ * lives only on the instance that accepted it, so a job left PENDING or RUNNING by a
+ * crash is failed when that instance starts again.
+ */
+@Slf4j
+@Service
+public class CardImportService {
+
+    private static final String OVERLOADED = "Очередь импорта переполнена, повторите попытку позже";
+    private static final String FAILURE_REASON = "Ошибка импорта, подробности в журнале";
+    private static final String INTERRUPTED = "Импорт прерван перезапуском, загрузите файл повторно";
+    private static final String CHUNK_WRITE_FAILED = "Не удалось записать пакет строк";
+    private static final String DUPLICATE_NUMBER = "Карта с таким номером уже существует";
+    private static final String ISSUING_BIN_NUMBER = "Номера из BIN банка выпускаются автоматически, не указывайте cardNumber";
+    private static final int MAX_MESSAGE_LENGTH = 255;
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("ownerid", "expirydate");
+    private static final Pattern CARD_NUMBER = Pattern.compile("\\d{16}");
+
+    private final CardImportJobRepository jobRepository;
+    private final CardImportErrorRepository errorRepository;
+    private final CardImportJdbcRepository importJdbcRepository;
+    private final CardRepository cardRepository;
+    private final UserRepository userRepository;
+    private final CardNumberJdbcRepository cardNumberJdbcRepository;
+    private final CardNumberIssuer cardNumberIssuer;
+    private final CardEncryptor cardEncryptor;
+    private final CardNumberHasher cardNumberHasher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int queueCapacity;
+    private final int encryptionThreads;
+    private final DataSize maxUploadSize;
+    private final String instanceId;
+
+    private ThreadPoolExecutor worker;
+    private ForkJoinPool encryptionPool;
+
+    public CardImportService(CardImportJobRepository jobRepository,
+                             CardImportErrorRepository errorRepository,
+                             CardImportJdbcRepository importJdbcRepository,
+                             CardRepository cardRepository,
+                             UserRepository userRepository,
+                             CardNumberJdbcRepository cardNumberJdbcRepository,
+                             CardNumberIssuer cardNumberIssuer,
+                             CardEncryptor cardEncryptor,
+                             CardNumberHasher cardNumberHasher,
+                             ObjectMapper objectMapper,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${app.card-import.chunk-size:1000}") int chunkSize,
+                             @Value("${app.card-import.queue-capacity:10}") int queueCapacity,
+                             @Value("${app.card-import.encryption-threads:0}") int encryptionThreads,
+                             @Value("${app.card-import.max-upload-size:100MB}") DataSize maxUploadSize,
+                             @Value("${app.instance-id:}") String instanceId) {
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.importJdbcRepository = importJdbcRepository;
+        this.cardRepository = cardRepository;
+        this.userRepository = userRepository;
+        this.cardNumberJdbcRepository = cardNumberJdbcRepository;
+        this.cardNumberIssuer = cardNumberIssuer;
+        this.cardEncryptor = cardEncryptor;
+        this.cardNumberHasher = cardNumberHasher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+        this.encryptionThreads = encryptionThreads > 0 ? encryptionThreads : Runtime.getRuntime().availableProcessors();
+        this.maxUploadSize = maxUploadSize;
+        this.instanceId = instanceId.isBlank() ? localHostName() : instanceId;
+    }
+
+    @PostConstruct
+    void start() {
+        worker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "card-import");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        encryptionPool = new ForkJoinPool(encryptionThreads);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        worker.shutdown();
+        worker.awaitTermination(30, TimeUnit.SECONDS);
+        encryptionPool.shutdown();
+    }
+
+    /**
+     * Runs before this instance accepts uploads, so none of its jobs can be alive yet.
+     * instance_id has to survive restarts (app.instance-id, the host name by default).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterrupted() {
+        int failed = jobRepository.failInterrupted(instanceId, INTERRUPTED, LocalDateTime.now());
+        if (failed > 0) {
+            log.warn("Marked {} card import jobs interrupted by a restart of {} as failed", failed, instanceId);
+        }
+    }
+
+    public CardImportJobDto submit(InputStream body, CardImportFormat format) {
+        if (worker.getQueue().remainingCapacity() == 0) {
+            throw new ServiceOverloadedException(OVERLOADED);
+        }
+
+        Path upload = spool(body, format);
+        LocalDateTime now = LocalDateTime.now();
+        CardImportJob job = jobRepository.save(CardImportJob.builder()
+                .format(format)
+                .status(CardImportStatus.PENDING)
+                .instanceId(instanceId)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        CardImportJobDto submitted = CardImportJobDto.from(job);
+
+        try {
+            worker.execute(() -> run(job, upload));
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(upload);
+            finish(job, CardImportStatus.FAILED, OVERLOADED);
+            throw new ServiceOverloadedException(OVERLOADED);
+        }
+        return submitted;
+    }
+
+    public CardImportJobDto getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .map(CardImportJobDto::from)
+                .orElseThrow(() -> new ImportJobNotFoundException("Задача импорта не найдена"));
+    }
+
+    public KeysetSlice<CardImportErrorDto> getErrors(Long jobId, Long after, int limit) {
+        if (limit < 1 || limit > KeysetSlice.MAX_LIMIT) {
+            throw new CardOperationException("Размер страницы должен быть от 1 до " + KeysetSlice.MAX_LIMIT);
+        }
+        if (!jobRepository.existsById(jobId)) {
+            throw new ImportJobNotFoundException("Задача импорта не найдена");
+        }
+        List<CardImportError> rows = errorRepository.findByJobIdAndIdGreaterThanOrderById(
+                jobId, after, PageRequest.ofSize(limit + 1));
+        return KeysetSlice.of(rows, limit, CardImportError::getId, CardImportErrorDto::from);
+    }
+
+    /**
+     * Stops reading as soon as the upload passes max-upload-size, so an oversized body
+     * never fills the temporary directory.
+     */
+    private Path spool(InputStream body, CardImportFormat format) {
+        Path upload = null;
+        try {
+            upload = Files.createTempFile("card-import-", "." + format.name().toLowerCase(Locale.ROOT));
+            try (OutputStream out = Files.newOutputStream(upload)) {
+                byte[] buffer = new byte[8192];
+                long total = 0;
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    total += read;
+                    if (total > maxUploadSize.toBytes()) {
+                        throw new CardOperationException("Файл импорта больше " + maxUploadSize.toMegabytes() + " МБ");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            return upload;
+        } catch (IOException e) {
+            if (upload != null) {
+                deleteQuietly(upload);
+            }
+            throw new CardOperationException("Не удалось принять файл импорта");
+        } catch (CardOperationException e) {
+            deleteQuietly(upload);
+            throw e;
+        }
+    }
+
+    private void run(CardImportJob job, Path upload) {
+        job.setStatus(CardImportStatus.RUNNING);
+        job.setUpdatedAt(LocalDateTime.now());
+        jobRepository.save(job);
+
+        try (BufferedReader reader = Files.newBufferedReader(upload, StandardCharsets.UTF_8)) {
+            long lineNumber = 0;
+            Map<String, Integer> csvColumns = null;
+            if (job.getFormat() == CardImportFormat.CSV) {
+                csvColumns = csvColumns(reader.readLine());
+                lineNumber++;
+            }
+
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                chunk.add(parse(lineNumber, line, csvColumns));
+                if (chunk.size() == chunkSize) {
+                    importChunk(job, chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(job, chunk);
+            }
+            finish(job, CardImportStatus.COMPLETED, null);
+            log.info("Card import {} completed: {} imported, {} failed", job.getId(), job.getRowsImported(), job.getRowsFailed());
+        } catch (CardOperationException e) {
+            finish(job, CardImportStatus.FAILED, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            log.error("Card import {} failed after {} rows", job.getId(), job.getRowsProcessed(), e);
+            finish(job, CardImportStatus.FAILED, FAILURE_REASON);
+        } finally {
+            deleteQuietly(upload);
+        }
+    }
+
+    private Map<String, Integer> csvColumns(String header) {
+        if (header == null) {
+            throw new CardOperationException("Файл импорта пуст");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        String[] names = header.split(",", -1);
+        for (int i = 0; i < names.length; i++) {
+            columns.put(names[i].strip().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_CSV_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new CardOperationException("В заголовке CSV нет колонки " + required);
+            }
+        }
+        return columns;
+    }
+
+    ImportRow parse(long lineNumber, String line, Map<String, Integer> csvColumns) {
+        CreateCardRequest request;
+        if (csvColumns == null) {
+            try {
+                request = objectMapper.readValue(line, CreateCardRequest.class);
+            } catch (JsonProcessingException e) {
+                return ImportRow.failed(lineNumber, "Некорректная строка JSON");
+            }
+        } else {
+            String[] values = line.split(",", -1);
+            if (values.length != csvColumns.size()) {
+                return ImportRow.failed(lineNumber, "Ожидается колонок: " + csvColumns.size() + ", получено: " + values.length);
+            }
+            request = new CreateCardRequest();
+            String column = "ownerId";
+            try {
+                String value = csvValue(values, csvColumns, column);
+                request.setOwnerId(value != null ? Long.valueOf(value) : null);
+                column = "expiryDate";
+                value = csvValue(values, csvColumns, column);
+                request.setExpiryDate(value != null ? LocalDate.parse(value) : null);
+                column = "initialBalance";
+                value = csvValue(values, csvColumns, column);
+                request.setInitialBalance(value != null ? new BigDecimal(value) : null);
+                request.setCardNumber(csvValue(values, csvColumns, "cardNumber"));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                return ImportRow.failed(lineNumber, "Некорректное значение в колонке " + column);
+            }
+        }
+
+        String error = validate(request);
+        if (error != null) {
+            return ImportRow.failed(lineNumber, error);
+        }
+        if (request.getCardNumber() != null && cardNumberIssuer.isInIssuingBin(request.getCardNumber())) {
+            return ImportRow.failed(lineNumber, ISSUING_BIN_NUMBER);
+        }
+        return new ImportRow(lineNumber, request, null);
+    }
+
+    /**
+     * Same constraints as {@link CreateCardRequest} declares for the single-card endpoint.
+     */
+    private static String validate(CreateCardRequest request) {
+        if (request.getOwnerId() == null) {
+            return "Не указан ownerId";
+        }
+        if (request.getExpiryDate() == null) {
+            return "Не указан expiryDate";
+        }
+        if (request.getCardNumber() != null && !CARD_NUMBER.matcher(request.getCardNumber()).matches()) {
+            return "Номер карты должен состоять из 16 цифр";
+        }
+        return null;
+    }
+
+    private static String csvValue(String[] values, Map<String, Integer> csvColumns, String column) {
+        Integer index = csvColumns.get(column.toLowerCase(Locale.ROOT));
+        if (index == null || values[index].isBlank()) {
+            return null;
+        }
+        return values[index].strip();
+    }
+
+    void importChunk(CardImportJob job, List<ImportRow> chunk) {
+        List<CardImportError> errors = new ArrayList<>();
+        List<ImportRow> valid = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (row.error() != null) {
+                errors.add(error(job, row.lineNumber(), row.error()));
+            } else {
+                valid.add(row);
+            }
+        }
+
+        Set<Long> ownerIds = valid.stream().map(row -> row.request().getOwnerId()).collect(Collectors.toSet());
+        Set<Long> owners = ownerIds.isEmpty() ? Set.of() : new HashSet<>(userRepository.findExistingIds(ownerIds));
+        List<ImportRow> owned = new ArrayList<>(valid.size());
+        for (ImportRow row : valid) {
+            if (owners.contains(row.request().getOwnerId())) {
+                owned.add(row);
+            } else {
+                errors.add(error(job, row.lineNumber(), "Пользователь не найден: " + row.request().getOwnerId()));
+            }
+        }
+
+        List<PreparedCard> prepared = prepare(owned);
+        Set<String> takenHashes = new HashSet<>(cardNumberJdbcRepository.findExistingHashes(prepared.stream()
+                .filter(PreparedCard::supplied)
+                .map(PreparedCard::cardNumberHash)
+                .toList()));
+        List<Card> cards = new ArrayList<>(prepared.size());
+        for (PreparedCard card : prepared) {
+            if (!takenHashes.add(card.cardNumberHash())) {
+                errors.add(error(job, card.row().lineNumber(), DUPLICATE_NUMBER));
+                continue;
+            }
+            CreateCardRequest request = card.row().request();
+            cards.add(Card.builder()
+                    .owner(userRepository.getReferenceById(request.getOwnerId()))
+                    .cardNumber(card.encryptedNumber())
+                    .cardNumberHash(card.cardNumberHash())
+                    .lastFourNumbers(card.lastFourNumbers())
+                    .expiryDate(request.getExpiryDate())
+                    .status(CardStatus.ACTIVE)
+                    .balance(request.getInitialBalance() != null ? request.getInitialBalance() : BigDecimal.ZERO)
+                    .build());
+        }
+
+        try {
+            commitChunk(job, chunk.size(), cards, errors);
+        } catch (DataAccessException e) {
+            log.warn("Card import {} could not write a chunk of {} rows", job.getId(), chunk.size(), e);
+            commitChunk(job, chunk.size(), List.of(), chunk.stream()
+                    .map(row -> error(job, row.lineNumber(), row.error() != null ? row.error() : CHUNK_WRITE_FAILED))
+                    .toList());
+        }
+    }
+
+    /**
+     * Numbers are issued up front for rows that did not supply one, then encryption
+     * and hashing, the CPU-bound part of an import, run in parallel on the pool.
+     */
+    private List<PreparedCard> prepare(List<ImportRow> rows) {
+        List<String> issued = cardNumberIssuer.issue((int) rows.stream()
+                .filter(row -> row.request().getCardNumber() == null)
+                .count());
+        List<String> numbers = new ArrayList<>(rows.size());
+        int nextIssued = 0;
+        for (ImportRow row : rows) {
+            numbers.add(row.request().getCardNumber() != null ? row.request().getCardNumber() : issued.get(nextIssued++));
+        }
+
+        PreparedCard[] prepared = new PreparedCard[rows.size()];
+        encryptionPool.submit(() -> Arrays.parallelSetAll(prepared, i -> new PreparedCard(
+                rows.get(i),
+                rows.get(i).request().getCardNumber() != null,
+                cardEncryptor.encrypt(numbers.get(i)),
+                cardNumberHasher.hash(numbers.get(i)),
+                CardMasker.getLastNums(numbers.get(i))))).join();
+        return Arrays.asList(prepared);
+    }
+
+    /**
+     * Cards are flushed only at commit, so a failed commit puts the job counters back
+     * before the chunk is recorded again as failed rows.
+     */
+    private void commitChunk(CardImportJob job, int rowCount, List<Card> cards, List<CardImportError> errors) {
+        long processed = job.getRowsProcessed();
+        long imported = job.getRowsImported();
+        long failed = job.getRowsFailed();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                cardRepository.saveAll(cards);
+                if (!errors.isEmpty()) {
+                    importJdbcRepository.insertErrors(errors);
+                }
+                job.setRowsProcessed(processed + rowCount);
+                job.setRowsImported(imported + cards.size());
+                job.setRowsFailed(failed + errors.size());
+                job.setUpdatedAt(LocalDateTime.now());
+                jobRepository.save(job);
+            });
+        } catch (DataAccessException e) {
+            job.setRowsProcessed(processed);
+            job.setRowsImported(imported);
+            job.setRowsFailed(failed);
+            throw e;
+        }
+    }
+
+    private void finish(CardImportJob job, CardImportStatus status, String failureReason) {
+        LocalDateTime now = LocalDateTime.now();
+        job.setStatus(status);
+        job.setUpdatedAt(now);
+        job.setFinishedAt(now);
+        job.setFailureReason(failureReason);
+        jobRepository.save(job);
+    }
+
+    private static CardImportError error(CardImportJob job, long lineNumber, String message) {
+        return CardImportError.builder()
+                .jobId(job.getId())
+                .lineNumber(lineNumber)
+                .message(message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message)
+                .build();
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "local";
+        }
+    }
+
+    private static void deleteQuietly(Path upload) {
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException e) {
+            log.warn("Could not delete import upload {}", upload, e);
+        }
+    }
+
+    record ImportRow(long lineNumber, CreateCardRequest request, String error) {
+
+        static ImportRow failed(long lineNumber, String error) {
+            return new ImportRow(lineNumber, null, error);
+        }
+    }
+
+    private record PreparedCard(ImportRow row, boolean supplied, String encryptedNumber, String cardNumberHash,
+                                String lastFourNumbers) {
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardKeyRotationDto;
+import com.example.bankcards.entity.CardKeyRotation;
+import com.example.bankcards.entity.CardKeyRotationStatus;
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.repository.CardKeyRotationRepository;
+import com.example.bankcards.repository.CardNumberJdbcRepository;
+import com.example.bankcards.repository.CardNumberRow;
+import com.example.bankcards.util.CardEncryptor;
+import com.example.bankcards.util.CardNumberHasher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Rewrites card numbers under the active key, and fills in the blind index where it
+ * is missing, while the application keeps serving reads: values carry their key version, so old and new ciphertexts are both
+ * readable during the run. Cards are walked in id order up to the highest id seen
+ * at start (later cards are already written with the active key), and the
+ * checkpoint is committed together with each chunk, so a restart resumes after
+ * the last rewritten chunk. A run belongs to the instance holding its lease, which
+ * every chunk renews; pausing and taking over both go through the table, so with
+ * several instances exactly one of them rewrites cards at a time.
+ */
+@Slf4j
+@Service
+public class CardKeyRotationService {
+
+    private static final String FAILURE_REASON = "Ошибка ротации ключа, подробности в журнале";
+
+    private final CardKeyRotationRepository rotationRepository;
+    private final CardNumberJdbcRepository cardNumberJdbcRepository;
+    private final CardEncryptor cardEncryptor;
+    private final CardNumberHasher cardNumberHasher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int rowsPerSecond;
+    private final Duration lease;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private ExecutorService worker;
+    private Future<?> current;
+    private volatile boolean pauseRequested;
+    private volatile boolean shuttingDown;
+
+    public CardKeyRotationService(CardKeyRotationRepository rotationRepository,
+                                  CardNumberJdbcRepository cardNumberJdbcRepository,
+                                  CardEncryptor cardEncryptor,
+                                  CardNumberHasher cardNumberHasher,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.card-encryption.rotation.chunk-size:500}") int chunkSize,
+                                  @Value("${app.card-encryption.rotation.rows-per-second:2000}") int rowsPerSecond,
+                                  @Value("${app.card-encryption.rotation.lease:PT2M}") Duration lease) {
+        this.rotationRepository = rotationRepository;
+        this.cardNumberJdbcRepository = cardNumberJdbcRepository;
+        this.cardEncryptor = cardEncryptor;
+        this.cardNumberHasher = cardNumberHasher;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.rowsPerSecond = rowsPerSecond;
+        this.lease = lease;
+    }
+
+    @PostConstruct
+    void start() {
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "card-key-rotation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        shuttingDown = true;
+        worker.shutdown();
+        worker.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * A run interrupted by a crash or shutdown is still RUNNING in the table. Once its
+     * lease lapses, the first instance to claim it picks it up again from its checkpoint.
+     */
+    @Scheduled(fixedDelayString = "${app.card-encryption.rotation.resume-interval:PT1M}")
+    public synchronized void resumeInterrupted() {
+        if (isActive()) {
+            return;
+        }
+        rotationRepository.findFirstByStatusOrderByIdDesc(CardKeyRotationStatus.RUNNING)
+                .filter(rotation -> rotation.getTargetKeyVersion() == cardEncryptor.getActiveKeyVersion())
+                .filter(rotation -> rotationRepository.claim(rotation.getId(), instanceId, leaseUntil(),
+                        LocalDateTime.now()) == 1)
+                .flatMap(rotation -> rotationRepository.findById(rotation.getId()))
+                .ifPresent(rotation -> {
+                    log.info("Resuming card key rotation {} after card {}", rotation.getId(), rotation.getLastCardId());
+                    launch(rotation);
+                });
+    }
+
+    public synchronized CardKeyRotationDto startRotation() {
+        if (isActive()) {
+            throw new CardOperationException("Ротация ключа уже выполняется");
+        }
+
+        int targetKeyVersion = cardEncryptor.getActiveKeyVersion();
+        LocalDateTime now = LocalDateTime.now();
+        Optional<CardKeyRotation> latest = rotationRepository.findFirstByOrderByIdDesc();
+        if (latest.filter(previous -> previous.getStatus() == CardKeyRotationStatus.RUNNING
+                && previous.getLeaseUntil() != null && previous.getLeaseUntil().isAfter(now)).isPresent()) {
+            throw new CardOperationException("Ротация ключа уже выполняется");
+        }
+        CardKeyRotation rotation = latest
+                .filter(previous -> previous.getStatus() != CardKeyRotationStatus.COMPLETED
+                        && previous.getTargetKeyVersion() == targetKeyVersion)
+                .orElseGet(() -> CardKeyRotation.builder()
+                        .targetKeyVersion(targetKeyVersion)
+                        .maxCardId(cardNumberJdbcRepository.findMaxCardId())
+                        .startedAt(now)
+                        .build());
+        rotation.setStatus(CardKeyRotationStatus.RUNNING);
+        rotation.setUpdatedAt(now);
+        rotation.setFailureReason(null);
+        rotation.setLeaseOwner(instanceId);
+        rotation.setLeaseUntil(now.plus(lease));
+
+        CardKeyRotation saved = rotationRepository.save(rotation);
+        CardKeyRotationDto started = CardKeyRotationDto.from(saved);
+        launch(saved);
+        return started;
+    }
+
+    /**
+     * Works from any instance: the run stops before its next chunk, wherever it runs.
+     */
+    public synchronized CardKeyRotationDto pauseRotation() {
+        CardKeyRotation running = rotationRepository.findFirstByOrderByIdDesc()
+                .filter(rotation -> rotation.getStatus() == CardKeyRotationStatus.RUNNING)
+                .orElseThrow(() -> new CardOperationException("Ротация ключа не выполняется"));
+        rotationRepository.pause(running.getId(), LocalDateTime.now());
+        pauseRequested = true;
+        return getProgress();
+    }
+
+    public CardKeyRotationDto getProgress() {
+        return rotationRepository.findFirstByOrderByIdDesc()
+                .map(CardKeyRotationDto::from)
+                .orElseThrow(() -> new CardOperationException("Ротация ключа не запускалась"));
+    }
+
+    private boolean isActive() {
+        return current != null && !current.isDone();
+    }
+
+    private void launch(CardKeyRotation rotation) {
+        pauseRequested = false;
+        current = worker.submit(() -> run(rotation));
+    }
+
+    private void run(CardKeyRotation rotation) {
+        long nanosPerRow = TimeUnit.SECONDS.toNanos(1) / rowsPerSecond;
+        try {
+            while (!pauseRequested && !shuttingDown) {
+                long chunkStarted = System.nanoTime();
+                int scanned = rotateChunk(rotation);
+                if (scanned < 0) {
+                    log.info("Card key rotation {} was paused or taken over, stopping after card {}",
+                            rotation.getId(), rotation.getLastCardId());
+                    return;
+                }
+                if (scanned == 0) {
+                    finish(rotation, CardKeyRotationStatus.COMPLETED, null);
+                    log.info("Card key rotation {} completed: {} rotated, {} failed",
+                            rotation.getId(), rotation.getRowsRotated(), rotation.getRowsFailed());
+                    return;
+                }
+                long remaining = scanned * nanosPerRow - (System.nanoTime() - chunkStarted);
+                if (remaining > 0) {
+                    TimeUnit.NANOSECONDS.sleep(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Card key rotation {} failed after card {}", rotation.getId(), rotation.getLastCardId(), e);
+            finish(rotation, CardKeyRotationStatus.FAILED, FAILURE_REASON);
+        }
+    }
+
+    /**
+     * Rewrites one chunk and advances the checkpoint in the same transaction. Rows are
+     * rewritten when their key version is stale or their blind index is still empty,
+     * so the same walk backfills card_number_hash for cards created before it existed.
+     * A value that cannot be decrypted, or whose number already belongs to another
+     * card, is counted and logged instead of stopping the run. Returns -1 without
+     * touching cards once this instance no longer holds the lease.
+     */
+    int rotateChunk(CardKeyRotation rotation) {
+        Integer scanned = transactionTemplate.execute(status -> {
+            LocalDateTime leaseUntil = leaseUntil();
+            if (rotationRepository.renewLease(rotation.getId(), instanceId, leaseUntil) == 0) {
+                return -1;
+            }
+            rotation.setLeaseUntil(leaseUntil);
+
+            List<CardNumberRow> rows = cardNumberJdbcRepository.findChunk(
+                    rotation.getLastCardId(), rotation.getMaxCardId(), chunkSize);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            List<CardNumberRow> candidates = new ArrayList<>(rows.size());
+            List<String> candidateNumbers = new ArrayList<>(rows.size());
+            List<String> candidateHashes = new ArrayList<>(rows.size());
+            int failed = 0;
+            for (CardNumberRow row : rows) {
+                try {
+                    boolean staleKey = cardEncryptor.keyVersionOf(row.cardNumber()) != rotation.getTargetKeyVersion();
+                    if (!staleKey && row.cardNumberHash() != null) {
+                        continue;
+                    }
+                    String cardNumber = cardEncryptor.decrypt(row.cardNumber());
+                    candidates.add(row);
+                    candidateNumbers.add(staleKey ? cardEncryptor.encrypt(cardNumber, rotation.getTargetKeyVersion())
+                            : row.cardNumber());
+                    candidateHashes.add(row.cardNumberHash() != null ? row.cardNumberHash()
+                            : cardNumberHasher.hash(cardNumber));
+                } catch (RuntimeException e) {
+                    failed++;
+                    log.warn("Card {} could not be re-encrypted", row.id(), e);
+                }
+            }
+
+            Set<String> takenHashes = new HashSet<>(cardNumberJdbcRepository.findExistingHashes(
+                    IntStream.range(0, candidates.size())
+                            .filter(i -> candidates.get(i).cardNumberHash() == null)
+                            .mapToObj(candidateHashes::get)
+                            .toList()));
+            List<CardNumberRow> stale = new ArrayList<>(candidates.size());
+            List<String> replacements = new ArrayList<>(candidates.size());
+            List<String> hashes = new ArrayList<>(candidates.size());
+            for (int i = 0; i < candidates.size(); i++) {
+                CardNumberRow row = candidates.get(i);
+                if (row.cardNumberHash() == null && !takenHashes.add(candidateHashes.get(i))) {
+                    failed++;
+                    log.warn("Card {} duplicates the number of another card and was not indexed", row.id());
+                    continue;
+                }
+                stale.add(row);
+                replacements.add(candidateNumbers.get(i));
+                hashes.add(candidateHashes.get(i));
+            }
+            int rotated = stale.isEmpty() ? 0 : cardNumberJdbcRepository.replaceCardNumbers(stale, replacements, hashes);
+
+            rotation.setLastCardId(rows.get(rows.size() - 1).id());
+            rotation.setRowsScanned(rotation.getRowsScanned() + rows.size());
+            rotation.setRowsRotated(rotation.getRowsRotated() + rotated);
+            rotation.setRowsFailed(rotation.getRowsFailed() + failed);
+            rotation.setUpdatedAt(LocalDateTime.now());
+            rotationRepository.save(rotation);
+            return rows.size();
+        });
+        return scanned != null ? scanned : 0;
+    }
+
+    /**
+     * Touches only the status columns and only while this instance still owns the
+     * run, so a chunk that rolled back cannot move the checkpoint past cards it never
+     * rewrote, and a run paused elsewhere stays paused.
+     */
+    private void finish(CardKeyRotation rotation, CardKeyRotationStatus status, String failureReason) {
+        LocalDateTime now = LocalDateTime.now();
+        rotationRepository.finish(rotation.getId(), instanceId, status, failureReason,
+                status == CardKeyRotationStatus.COMPLETED ? now : null, now);
+    }
+
+    private LocalDateTime leaseUntil() {
+        return LocalDateTime.now().plus(lease);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.repository.SequenceBlockJdbcRepository;
+import com.example.bankcards.util.Luhn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Issues 16-digit card numbers inside the configured BIN: BIN, account number and a
+ * Luhn check digit. Account numbers come from blocks of a per-BIN sequence reserved
+ * in id_sequences, so nodes never hand out the same number and issuing needs no
+ * uniqueness check; only every block-size-th number costs a database round trip.
+ * The sequence value is multiplied by a constant coprime to 10 modulo the account
+ * range, which is a bijection on the range, so numbers stay unique while
+ * consecutive cards do not get consecutive numbers. Supplied and imported numbers
+ * are kept out of the BIN, see {@link #isInIssuingBin(String)}.
+ */
+@Service
+public class CardNumberIssuer {
+
+    static final int PAN_LENGTH = 16;
+    private static final long SCRAMBLE_MULTIPLIER = 7_919_393L;
+
+    private final SequenceBlockJdbcRepository sequenceBlockJdbcRepository;
+    private final TransactionTemplate ownTransaction;
+    private final String bin;
+    private final String sequenceName;
+    private final int accountDigits;
+    private final long accountRange;
+    private final int blockSize;
+
+    private long next;
+    private long blockEnd;
+
+    public CardNumberIssuer(SequenceBlockJdbcRepository sequenceBlockJdbcRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.card-issuance.bin:427612}") String bin,
+                            @Value("${app.card-issuance.block-size:1000}") int blockSize) {
+        if (!bin.chars().allMatch(Character::isDigit) || bin.length() < 6 || bin.length() > 8) {
+            throw new IllegalStateException("Card BIN must be 6 to 8 digits: " + bin);
+        }
+        this.sequenceBlockJdbcRepository = sequenceBlockJdbcRepository;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.bin = bin;
+        this.sequenceName = "pan_" + bin;
+        this.accountDigits = PAN_LENGTH - 1 - bin.length();
+        this.accountRange = (long) Math.pow(10, accountDigits);
+        this.blockSize = blockSize;
+    }
+
+    public String issue() {
+        return issue(1).get(0);
+    }
+
+    public synchronized List<String> issue(int count) {
+        List<String> numbers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (next == blockEnd) {
+                reserveBlock();
+            }
+            numbers.add(format(next++));
+        }
+        return numbers;
+    }
+
+    /**
+     * Whether the number lies in the BIN this issuer numbers from. Only the issuer may
+     * hand out such numbers, otherwise a supplied one could later be issued again.
+     */
+    public boolean isInIssuingBin(String cardNumber) {
+        return cardNumber.startsWith(bin);
+    }
+
+    /**
+     * Reserved in its own transaction: the sequence row is unlocked straight away, and
+     * a block is never handed out twice even if the card insert that needed it rolls back.
+     */
+    private void reserveBlock() {
+        Long start = ownTransaction.execute(status -> sequenceBlockJdbcRepository.reserve(sequenceName, blockSize));
+        if (start == null || start + blockSize > accountRange) {
+            throw new CardOperationException("Диапазон номеров карт для BIN " + bin + " исчерпан");
+        }
+        next = start;
+        blockEnd = start + blockSize;
+    }
+
+    private String format(long sequenceValue) {
+        long account = sequenceValue * SCRAMBLE_MULTIPLIER % accountRange;
+        StringBuilder pan = new StringBuilder(PAN_LENGTH).append(bin);
+        String digits = Long.toString(account);
+        pan.append("0".repeat(accountDigits - digits.length())).append(digits);
+        return pan.append(Luhn.checkDigit(pan)).toString();
+    }
+}
@@ -1,115 +1,264 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.AsyncTransferDto;
+import com.example.bankcards.dto.BatchTransferMode;
+import com.example.bankcards.dto.BatchTransferRequest;
+import com.example.bankcards.dto.BatchTransferResponse;
 import com.example.bankcards.dto.CardDto;
 import com.example.bankcards.dto.CardSearchRequest;
+import com.example.bankcards.dto.CardTransactionDto;
+import com.example.bankcards.dto.CardTransactionPage;
+import com.example.bankcards.dto.TransactionHistoryRequest;
+import com.example.bankcards.dto.TransferCommand;
 import com.example.bankcards.dto.TransferRequest;
 import com.example.bankcards.entity.*;
 import com.example.bankcards.exception.CardNotFoundException;
 import com.example.bankcards.exception.CardOperationException;
-import com.example.bankcards.exception.InsufficientException;
-import com.example.bankcards.exception.UserNotFoundException;
+import com.example.bankcards.exception.TransferNotFoundException;
+import com.example.bankcards.repository.AsyncTransferRepository;
 import com.example.bankcards.repository.BlockCardRequestRepository;
 import com.example.bankcards.repository.CardRepository;
-import com.example.bankcards.repository.TransactionRepository;
-import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.repository.CardSpecifications;
+import com.example.bankcards.repository.LedgerEntryRepository;
+import com.example.bankcards.repository.LedgerEntrySpecifications;
+import com.example.bankcards.security.CurrentUser;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.CardNumbers;
+import com.example.bankcards.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class CardService {
 
-    private final UserRepository userRepository;
+    private static final Pattern LAST_FOUR_SEARCH = Pattern.compile("\\d{1,4}");
+    private static final Sort HISTORY_ORDER = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
     private final CardRepository cardRepository;
-    private final TransactionRepository transactionRepository;
     private final BlockCardRequestRepository blockCardRequestRepository;
+    private final CardTransferEngine cardTransferEngine;
+    private final TransferPipeline transferPipeline;
+    private final AsyncTransferRepository asyncTransferRepository;
+    private final IdempotencyService idempotencyService;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final CardNumberHasher cardNumberHasher;
 
     public Page<CardDto> getUserCards(CardSearchRequest request) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        User user = userRepository.findUserByEmail(email).orElseThrow(() -> new UserNotFoundException("User not found"));
+        Long userId = CurrentUser.id();
 
-        Page<Card> cardsPage = cardRepository.findByOwnerId(user.getId(), PageRequest.of(request.getPage(), request.getSize()));
+        Specification<Card> specification = CardSpecifications.ownedBy(userId);
+        if (request.getStatus() != null) {
+            specification = specification.and(CardSpecifications.hasStatus(request.getStatus()));
+        }
+        if (request.getSearch() != null && !request.getSearch().isBlank()) {
+            String digits = request.getSearch().strip();
+            if (!LAST_FOUR_SEARCH.matcher(digits).matches()) {
+                throw new CardOperationException("Поиск выполняется по последним цифрам номера карты");
+            }
+            specification = specification.and(CardSpecifications.lastFourStartsWith(digits));
+        }
 
-        return cardsPage.map(CardDto::from);
+        return cardRepository.searchPage(specification, PageRequest.of(request.getPage(), request.getSize()))
+                .map(CardDto::from);
     }
 
     public void transferBetweenCards(TransferRequest request) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        User user = userRepository.findUserByEmail(email).orElseThrow(() -> new UserNotFoundException("User not found"));
+        transferBetweenCards(request, null);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void transferBetweenCards(TransferRequest request, String idempotencyKey) {
+        Long userId = CurrentUser.id();
+        resolveRecipient(userId, request);
 
-        if (!cardRepository.existsByIdAndOwnerId(request.getFromCardId(),
-                user.getId()) || !cardRepository.existsByIdAndOwnerId(request.getToCardId(), user.getId())) {
-            throw new AccessDeniedException("Одна из карт не принадлежит пользователю");
+        if (idempotencyKey == null) {
+            cardTransferEngine.transfer(userId, request);
+            return;
         }
 
-        Card fromCard = cardRepository.findById(request.getFromCardId())
-                .orElseThrow(() -> new CardNotFoundException("Карта отправителя не найдена"));
-        Card toCard = cardRepository.findById(request.getToCardId())
-                .orElseThrow(() -> new CardNotFoundException("Карта получателя не найдена"));
+        String requestHash = idempotencyService.hash(request, false);
+        if (idempotencyService.findPrevious(userId, idempotencyKey, requestHash).isPresent()) {
+            return;
+        }
 
-        if (!fromCard.isActive() || !toCard.isActive()) {
-            throw new CardOperationException("Одна из карт заблокирована");
+        try {
+            cardTransferEngine.transfer(userId, request, transaction -> idempotencyService.remember(
+                    userId, idempotencyKey, requestHash, transaction.getId(), null));
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencyService.findPrevious(userId, idempotencyKey, requestHash).isEmpty()) {
+                throw e;
+            }
         }
+    }
 
-        if (fromCard.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new InsufficientException("Недостаточно средств");
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchTransferResponse transferBatch(BatchTransferRequest request) {
+        Long userId = CurrentUser.id();
+        if (request.getTransfers() == null || request.getTransfers().isEmpty()
+                || request.getTransfers().size() > BatchTransferRequest.MAX_TRANSFERS) {
+            throw new CardOperationException("В одном пакете должно быть от 1 до "
+                    + BatchTransferRequest.MAX_TRANSFERS + " переводов");
         }
+        request.getTransfers().forEach(transfer -> resolveRecipient(userId, transfer));
 
-        fromCard.setBalance(fromCard.getBalance().subtract(request.getAmount()));
-        toCard.setBalance(toCard.getBalance().add(request.getAmount()));
+        List<TransferCommand> commands = request.getTransfers().stream()
+                .map(transfer -> TransferCommand.of(userId, transfer))
+                .toList();
+        List<Long> cardIds = commands.stream()
+                .flatMap(command -> Stream.of(command.fromCardId(), command.toCardId()))
+                .toList();
+        boolean atomic = request.getMode() == BatchTransferMode.ALL_OR_NOTHING;
 
-        cardRepository.saveAll(List.of(fromCard, toCard));
+        List<TransferOutcome> outcomes = cardTransferEngine.executeLocked(cardIds,
+                cards -> cardTransferEngine.applyAll(commands, cards, atomic));
 
-        Transactions transaction = Transactions.builder()
-                .fromCard(fromCard)
-                .toCard(toCard)
-                .amount(request.getAmount())
-                .description(request.getDescription() != null ? request.getDescription() : "Перевод между картами")
-                .build();
-        transactionRepository.save(transaction);
+        List<BatchTransferResponse.ItemResult> results = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            TransferCommand command = commands.get(i);
+            results.add(new BatchTransferResponse.ItemResult(i, command.fromCardId(), command.toCardId(),
+                    command.amount(), outcomes.get(i).name(), outcomes.get(i).getMessage()));
+        }
+        int completed = (int) outcomes.stream().filter(outcome -> outcome == TransferOutcome.COMPLETED).count();
+        return new BatchTransferResponse(request.getMode(), completed, commands.size() - completed, results);
+    }
+
+    public AsyncTransferDto submitTransfer(TransferRequest request) {
+        return submitTransfer(request, null);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AsyncTransferDto submitTransfer(TransferRequest request, String idempotencyKey) {
+        Long userId = CurrentUser.id();
+        resolveRecipient(userId, request);
+        TransferCommand command = TransferCommand.of(userId, request);
+
+        if (idempotencyKey == null) {
+            return AsyncTransferDto.from(transferPipeline.submit(command));
+        }
+
+        String requestHash = idempotencyService.hash(request, true);
+        Optional<IdempotencyRecord> previous = idempotencyService.findPrevious(userId, idempotencyKey, requestHash);
+        if (previous.isPresent()) {
+            return getTransferStatus(previous.get().getAsyncTransferId(), userId);
+        }
+
+        try {
+            return AsyncTransferDto.from(transferPipeline.submit(command, transfer -> idempotencyService.remember(
+                    userId, idempotencyKey, requestHash, null, transfer.getId())));
+        } catch (DataIntegrityViolationException e) {
+            return idempotencyService.findPrevious(userId, idempotencyKey, requestHash)
+                    .map(record -> getTransferStatus(record.getAsyncTransferId(), userId))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * A recipient given by card number is found through the blind index among the
+     * caller's own cards, so another owner's number reads as not found.
+     */
+    private void resolveRecipient(Long userId, TransferRequest request) {
+        boolean byNumber = request.getToCardNumber() != null && !request.getToCardNumber().isBlank();
+        if ((request.getToCardId() != null) == byNumber) {
+            throw new CardOperationException("Укажите карту получателя: toCardId или toCardNumber");
+        }
+        if (byNumber) {
+            String cardNumber = CardNumbers.normalize(request.getToCardNumber());
+            if (cardNumber == null) {
+                throw new CardOperationException("Номер карты должен состоять из 16 цифр");
+            }
+            request.setToCardId(cardRepository.findIdByCardNumberHashAndOwnerId(cardNumberHasher.hash(cardNumber), userId)
+                    .orElseThrow(() -> new CardNotFoundException("Карта получателя не найдена")));
+            request.setToCardNumber(null);
+        }
+    }
+
+    public AsyncTransferDto getTransferStatus(Long transferId) {
+        Long userId = CurrentUser.id();
+
+        return getTransferStatus(transferId, userId);
+    }
+
+    private AsyncTransferDto getTransferStatus(Long transferId, Long ownerId) {
+        return asyncTransferRepository.findByIdAndOwnerId(transferId, ownerId)
+                .map(AsyncTransferDto::from)
+                .orElseThrow(() -> new TransferNotFoundException("Перевод не найден"));
     }
 
     public BigDecimal getCardBalance(Long cardId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        User user = userRepository.findUserByEmail(email).orElseThrow(() -> new UserNotFoundException("User not found"));
+        Long userId = CurrentUser.id();
 
         Card card = cardRepository.findById(cardId)
                 .orElseThrow(() -> new CardNotFoundException("Карта не найдена"));
 
-        if (!card.getOwner().getId().equals(user.getId())) {
+        if (!card.getOwner().getId().equals(userId)) {
             throw new AccessDeniedException("Нет доступа к карте");
         }
 
         return card.getBalance();
     }
 
+    /**
+     * Keyset paging over the card's ledger, newest first. One row past the page is
+     * read to decide whether a next cursor exists, so no count query is needed.
+     */
+    @Transactional(readOnly = true)
+    public CardTransactionPage getCardTransactions(Long cardId, TransactionHistoryRequest request) {
+        Long userId = CurrentUser.id();
+        if (request.getSize() < 1 || request.getSize() > TransactionHistoryRequest.MAX_SIZE) {
+            throw new CardOperationException("Размер страницы должен быть от 1 до " + TransactionHistoryRequest.MAX_SIZE);
+        }
+
+        if (!cardRepository.existsByIdAndOwnerId(cardId, userId)) {
+            throw new CardNotFoundException("Карта не найдена");
+        }
+
+        KeysetCursor cursor = request.getCursor() != null ? KeysetCursor.decode(request.getCursor()) : null;
+        List<LedgerEntry> entries = ledgerEntryRepository.findBy(
+                LedgerEntrySpecifications.history(cardId, request, cursor),
+                query -> query.sortBy(HISTORY_ORDER).limit(request.getSize() + 1).all());
+
+        boolean hasNext = entries.size() > request.getSize();
+        List<LedgerEntry> page = hasNext ? entries.subList(0, request.getSize()) : entries;
+        String nextCursor = null;
+        if (hasNext) {
+            LedgerEntry last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CardTransactionPage(page.stream().map(CardTransactionDto::from).toList(), nextCursor);
+    }
+
     public void requestCardBlock(Long cardId, String reason) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        User user = userRepository.findUserByEmail(email).orElseThrow(() -> new UserNotFoundException("User not found"));
+        Long userId = CurrentUser.id();
 
         Card card = cardRepository.findById(cardId).orElseThrow(() -> new CardNotFoundException("Карта не найдена"));
 
-        if (!card.getOwner().getId().equals(user.getId())) {
+        if (!card.getOwner().getId().equals(userId)) {
             throw new AccessDeniedException("Нет доступа к карте");
         }
 
         if (card.getStatus() == CardStatus.BLOCKED) {
             throw new CardOperationException("Карта уже заблокирована");
         }
+        if (blockCardRequestRepository.existsByCardIdAndStatus(cardId, BlockRequestStatus.PENDING)) {
+            return;
+        }
 
         BlockCardRequest request = BlockCardRequest.builder()
                 .card(card)
@@ -0,0 +1,251 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransferCommand;
+import com.example.bankcards.dto.TransferRequest;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.LedgerDirection;
+import com.example.bankcards.entity.LedgerEntry;
+import com.example.bankcards.entity.Transactions;
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardTransferState;
+import com.example.bankcards.repository.LedgerEntryRepository;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.repository.TransferJdbcRepository;
+import com.example.bankcards.util.CardLockManager;
+import com.example.bankcards.util.TransferContentionMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CardTransferEngine {
+
+    private final CardRepository cardRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransferJdbcRepository transferJdbcRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final CardLockManager cardLockManager;
+    private final TransferContentionMetrics contentionMetrics;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.transfer.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.transfer.retry-backoff:20ms}")
+    private Duration retryBackoff;
+
+    public Transactions transfer(Long ownerId, TransferRequest request) {
+        return transfer(ownerId, request, transaction -> {
+        });
+    }
+
+    public Transactions transfer(Long ownerId, TransferRequest request, Consumer<Transactions> inSameTransaction) {
+        TransferCommand command = TransferCommand.of(ownerId, request);
+        return executeLocked(List.of(command.fromCardId(), command.toCardId()), cards -> {
+            Map<Long, BigDecimal> balances = balancesOf(cards);
+            TransferOutcome outcome = evaluate(command, cards, balances);
+            if (outcome != TransferOutcome.COMPLETED) {
+                throw outcome.toException();
+            }
+
+            if (cardRepository.debit(command.fromCardId(), ownerId, command.amount()) == 0
+                    || cardRepository.credit(command.toCardId(), ownerId, command.amount()) == 0) {
+                throw new CardOperationException("Состояние карты изменилось, повторите перевод");
+            }
+
+            Transactions saved = transactionRepository.save(toTransaction(command));
+            ledgerEntryRepository.saveAll(post(command, saved, balances, lastSeqs(cards.keySet()), LocalDateTime.now()));
+            inSameTransaction.accept(saved);
+            return saved;
+        });
+    }
+
+    public List<TransferOutcome> applyAll(List<TransferCommand> commands, Map<Long, CardTransferState> cards) {
+        return applyAll(commands, cards, false);
+    }
+
+    /**
+     * Applies the commands in order against the locked cards and writes every accepted
+     * transfer with one batch of balance updates; transfer and ledger rows use pooled
+     * ids, so Hibernate flushes them as batched inserts on commit.
+     * In atomic mode a single rejection turns the other outcomes into SKIPPED and
+     * nothing is written. The outcome list matches the command list.
+     */
+    public List<TransferOutcome> applyAll(List<TransferCommand> commands, Map<Long, CardTransferState> cards,
+                                          boolean atomic) {
+        Map<Long, BigDecimal> balances = balancesOf(cards);
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        Map<Long, Long> seqs = null;
+        LocalDateTime postedAt = LocalDateTime.now();
+        List<Transactions> transactions = new ArrayList<>();
+        List<LedgerEntry> entries = new ArrayList<>();
+        List<TransferOutcome> outcomes = new ArrayList<>(commands.size());
+
+        for (TransferCommand command : commands) {
+            TransferOutcome outcome = evaluate(command, cards, balances);
+            if (outcome == TransferOutcome.COMPLETED) {
+                if (seqs == null) {
+                    seqs = lastSeqs(cards.keySet());
+                }
+                deltas.merge(command.fromCardId(), command.amount().negate(), BigDecimal::add);
+                deltas.merge(command.toCardId(), command.amount(), BigDecimal::add);
+                Transactions transaction = toTransaction(command);
+                transactions.add(transaction);
+                entries.addAll(post(command, transaction, balances, seqs, postedAt));
+            }
+            outcomes.add(outcome);
+        }
+
+        if (atomic && transactions.size() < commands.size()) {
+            return outcomes.stream()
+                    .map(outcome -> outcome == TransferOutcome.COMPLETED ? TransferOutcome.SKIPPED : outcome)
+                    .toList();
+        }
+
+        if (!transactions.isEmpty()) {
+            transferJdbcRepository.addToBalances(deltas);
+            transactionRepository.saveAll(transactions);
+            ledgerEntryRepository.saveAll(entries);
+        }
+        return outcomes;
+    }
+
+    /**
+     * Runs the work in its own transaction while holding the in-JVM stripes and the
+     * row locks of the given cards, both taken in ascending id order. Deadlocks and
+     * lock wait timeouts are retried with a jittered backoff; must not be called
+     * from inside an existing transaction.
+     */
+    public <T> T executeLocked(Collection<Long> cardIds, Function<Map<Long, CardTransferState>, T> work) {
+        List<Long> orderedIds = cardIds.stream().distinct().sorted().toList();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return cardLockManager.withLocks(orderedIds, () -> transactionTemplate.execute(status -> {
+                    Map<Long, CardTransferState> cards = cardRepository.lockForTransfer(orderedIds).stream()
+                            .collect(Collectors.toMap(CardTransferState::getId, Function.identity()));
+                    return work.apply(cards);
+                }));
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    contentionMetrics.recordExhausted();
+                    throw e;
+                }
+                contentionMetrics.recordRetry(orderedIds);
+                log.debug("Lock conflict on cards {}, attempt {}: {}", orderedIds, attempt, e.getMessage());
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    private TransferOutcome evaluate(TransferCommand command, Map<Long, CardTransferState> cards,
+                                     Map<Long, BigDecimal> balances) {
+        if (command.amount() == null || command.amount().signum() <= 0) {
+            return TransferOutcome.INVALID_AMOUNT;
+        }
+
+        CardTransferState fromCard = cards.get(command.fromCardId());
+        CardTransferState toCard = cards.get(command.toCardId());
+
+        if (!isOwnedBy(fromCard, command.ownerId()) || !isOwnedBy(toCard, command.ownerId())) {
+            return TransferOutcome.ACCESS_DENIED;
+        }
+
+        if (!isActive(fromCard) || !isActive(toCard)) {
+            return TransferOutcome.CARD_BLOCKED;
+        }
+
+        if (balances.get(fromCard.getId()).compareTo(command.amount()) < 0) {
+            return TransferOutcome.INSUFFICIENT_FUNDS;
+        }
+
+        return TransferOutcome.COMPLETED;
+    }
+
+    /**
+     * Builds the debit and credit postings of one transfer and advances the running
+     * balances and per-card sequence numbers. Callers hold the row locks of both
+     * cards, so the next sequence number cannot be taken concurrently.
+     */
+    private List<LedgerEntry> post(TransferCommand command, Transactions transaction, Map<Long, BigDecimal> balances,
+                                   Map<Long, Long> seqs, LocalDateTime postedAt) {
+        LedgerEntry debit = entry(command.fromCardId(), transaction, LedgerDirection.DEBIT,
+                command.amount(), command.amount().negate(), balances, seqs, postedAt);
+        LedgerEntry credit = entry(command.toCardId(), transaction, LedgerDirection.CREDIT,
+                command.amount(), command.amount(), balances, seqs, postedAt);
+        return List.of(debit, credit);
+    }
+
+    private LedgerEntry entry(Long cardId, Transactions transaction, LedgerDirection direction, BigDecimal amount,
+                              BigDecimal delta, Map<Long, BigDecimal> balances, Map<Long, Long> seqs,
+                              LocalDateTime postedAt) {
+        return LedgerEntry.builder()
+                .card(cardRepository.getReferenceById(cardId))
+                .transaction(transaction)
+                .seq(seqs.merge(cardId, 1L, Long::sum))
+                .direction(direction)
+                .amount(amount)
+                .balanceAfter(balances.merge(cardId, delta, BigDecimal::add))
+                .createdAt(postedAt)
+                .build();
+    }
+
+    private Map<Long, Long> lastSeqs(Collection<Long> cardIds) {
+        Map<Long, Long> seqs = new HashMap<>();
+        cardIds.forEach(cardId -> seqs.put(cardId, 0L));
+        ledgerEntryRepository.findLastPositions(cardIds)
+                .forEach(position -> seqs.put(position.getCardId(), position.getSeq()));
+        return seqs;
+    }
+
+    private Transactions toTransaction(TransferCommand command) {
+        return Transactions.builder()
+                .fromCard(cardRepository.getReferenceById(command.fromCardId()))
+                .toCard(cardRepository.getReferenceById(command.toCardId()))
+                .amount(command.amount())
+                .description(command.description())
+                .build();
+    }
+
+    private Map<Long, BigDecimal> balancesOf(Map<Long, CardTransferState> cards) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        cards.values().forEach(card -> balances.put(card.getId(), card.getBalance()));
+        return balances;
+    }
+
+    private boolean isOwnedBy(CardTransferState card, Long ownerId) {
+        return card != null && ownerId.equals(card.getOwnerId());
+    }
+
+    private boolean isActive(CardTransferState card) {
+        return CardStatus.ACTIVE.name().equals(card.getStatus());
+    }
+
+    private void backOff(int attempt, PessimisticLockingFailureException cause) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(retryBackoff.toMillis() * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransferRequest;
+import com.example.bankcards.entity.IdempotencyRecord;
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.repository.IdempotencyRecordRepository;
+import com.example.bankcards.util.Sha256;
+import com.example.bankcards.util.TtlCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TtlCache<String, IdempotencyRecord> cache;
+    private final Duration retention;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              @Value("${app.idempotency.cache-size:100000}") int cacheSize,
+                              @Value("${app.idempotency.cache-ttl:10m}") Duration cacheTtl,
+                              @Value("${app.idempotency.retention:24h}") Duration retention) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.cache = new TtlCache<>(cacheSize, cacheTtl);
+        this.retention = retention;
+    }
+
+    /**
+     * Looks the key up in the local cache first and falls back to the database,
+     * which stays the source of truth across nodes.
+     */
+    public Optional<IdempotencyRecord> findPrevious(Long ownerId, String idempotencyKey, String requestHash) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new CardOperationException("Некорректный ключ идемпотентности");
+        }
+
+        String cacheKey = cacheKey(ownerId, idempotencyKey);
+        IdempotencyRecord record = cache.get(cacheKey);
+        if (record == null) {
+            record = idempotencyRecordRepository.findByOwnerIdAndIdempotencyKey(ownerId, idempotencyKey).orElse(null);
+            if (record != null) {
+                cache.put(cacheKey, record);
+            }
+        }
+
+        if (record != null && !record.getRequestHash().equals(requestHash)) {
+            throw new CardOperationException("Ключ идемпотентности уже использован для другого перевода");
+        }
+        return Optional.ofNullable(record);
+    }
+
+    /**
+     * Must run in the transaction that applies the operation: a concurrent duplicate
+     * fails on the unique constraint and rolls its own work back.
+     */
+    public void remember(Long ownerId, String idempotencyKey, String requestHash,
+                         Long transactionId, Long asyncTransferId) {
+        IdempotencyRecord record = idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                .ownerId(ownerId)
+                .idempotencyKey(idempotencyKey)
+                .requestHash(requestHash)
+                .transactionId(transactionId)
+                .asyncTransferId(asyncTransferId)
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(cacheKey(ownerId, idempotencyKey), record);
+            }
+        });
+    }
+
+    public String hash(TransferRequest request, boolean async) {
+        String payload = String.join("|",
+                String.valueOf(request.getFromCardId()),
+                String.valueOf(request.getToCardId()),
+                request.getAmount().stripTrailingZeros().toPlainString(),
+                String.valueOf(request.getDescription()),
+                async ? "async" : "sync");
+        return Sha256.hex(payload);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval:PT1H}")
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private String cacheKey(Long ownerId, String idempotencyKey) {
+        return ownerId + ":" + idempotencyKey;
+    }
+}
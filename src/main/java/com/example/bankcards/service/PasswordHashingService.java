@@ -0,0 +1,145 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.PasswordHashingStatsDto;
+import com.example.bankcards.exception.ServiceOverloadedException;
+import com.example.bankcards.util.PasswordHashingMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt on its own small pool so a burst of logins cannot occupy the request
+ * threads that serve transfers and balances. When the queue is full, or the hashes
+ * already queued would take longer than max-wait at the average hash time, the caller
+ * gets a 503 straight away instead of holding its request thread until the timeout.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private static final String OVERLOADED = "Сервис аутентификации перегружен, повторите попытку позже";
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingMetrics metrics;
+    private final int strength;
+    private final int threads;
+    private final int queueCapacity;
+    private final Duration maxWait;
+
+    private ThreadPoolExecutor executor;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  PasswordHashingMetrics metrics,
+                                  @Value("${app.security.password.bcrypt-strength:10}") int strength,
+                                  @Value("${app.security.password.threads:2}") int threads,
+                                  @Value("${app.security.password.queue-capacity:100}") int queueCapacity,
+                                  @Value("${app.security.password.max-wait:2s}") Duration maxWait) {
+        this.passwordEncoder = passwordEncoder;
+        this.metrics = metrics;
+        this.strength = strength;
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.maxWait = maxWait;
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public String encode(String rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * True when the hash was made with another cost than the configured one, in either
+     * direction, so lowering the cost to meet a latency budget also takes effect.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    public PasswordHashingStatsDto getStats() {
+        return metrics.snapshot(executor.getQueue().size());
+    }
+
+    private <T> T execute(Callable<T> task) {
+        if (expectedWaitNanos() >= maxWait.toNanos()) {
+            metrics.recordRejected();
+            throw new ServiceOverloadedException(OVERLOADED);
+        }
+
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                T result = task.call();
+                metrics.recordCompleted(startedAt - submittedAt, System.nanoTime() - startedAt);
+                return result;
+            });
+        } catch (RejectedExecutionException e) {
+            metrics.recordRejected();
+            throw new ServiceOverloadedException(OVERLOADED);
+        }
+
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            executor.purge();
+            metrics.recordTimedOut();
+            throw new ServiceOverloadedException(OVERLOADED);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException(OVERLOADED);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private long expectedWaitNanos() {
+        return executor.getQueue().size() * metrics.averageHashNanos() / threads;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.RefreshToken;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InvalidRefreshTokenException;
+import com.example.bankcards.repository.RefreshTokenRepository;
+import com.example.bankcards.security.TokenRevocationRegistry;
+import com.example.bankcards.util.Sha256;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final Duration lifetime;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               TokenRevocationRegistry tokenRevocationRegistry,
+                               @Value("${app.security.jwt.refresh-token.expiration-time:604800000}") long lifetimeMillis) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.lifetime = Duration.ofMillis(lifetimeMillis);
+    }
+
+    /**
+     * Starts a new rotation family for a fresh login. Only the SHA-256 of the token
+     * is stored; the token itself carries 256 random bits, so a slow hash adds nothing.
+     */
+    @Transactional
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new one of the same family. Each token is
+     * single-use: presenting a token that was already exchanged means it leaked, so
+     * the whole family and the user's access tokens are revoked.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new InvalidRefreshTokenException("Refresh-токен не передан");
+        }
+        RefreshToken current = refreshTokenRepository.findByTokenHash(Sha256.hex(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Недействительный refresh-токен"));
+
+        if (current.isRevoked()) {
+            throw new InvalidRefreshTokenException("Refresh-токен отозван");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new InvalidRefreshTokenException("Срок действия refresh-токена истёк");
+        }
+        if (current.getUsedAt() != null || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            tokenRevocationRegistry.revokeUser(current.getUser().getId());
+            log.warn("Refresh token reuse detected for user {}, family {} revoked",
+                    current.getUser().getId(), current.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh-токен уже использован");
+        }
+
+        return new Rotation(current.getUser(), issue(current.getUser(), current.getFamilyId()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.jwt.refresh-token.cleanup-interval:PT1H}")
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String issue(User user, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .familyId(familyId)
+                .tokenHash(Sha256.hex(token))
+                .createdAt(now)
+                .expiresAt(now.plus(lifetime))
+                .build());
+        return token;
+    }
+
+    public record Rotation(User user, String refreshToken) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardTransactionDto;
+import com.example.bankcards.dto.StatementFormat;
+import com.example.bankcards.exception.CardNotFoundException;
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.LedgerJdbcRepository;
+import com.example.bankcards.security.CurrentUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+@Service
+@RequiredArgsConstructor
+public class StatementExportService {
+
+    private static final String CSV_HEADER = "id,transaction_id,created_at,direction,amount,balance_after,counterpart_card_id,description";
+
+    private final CardRepository cardRepository;
+    private final LedgerJdbcRepository ledgerJdbcRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Checks access on the request thread and returns a body that streams the rows
+     * once the response is committed; the dates are inclusive.
+     */
+    public StreamingResponseBody export(Long cardId, LocalDate from, LocalDate to, StatementFormat format) {
+        Long userId = CurrentUser.id();
+
+        if (!cardRepository.existsByIdAndOwnerId(cardId, userId)) {
+            throw new CardNotFoundException("Карта не найдена");
+        }
+        if (from.isAfter(to)) {
+            throw new CardOperationException("Дата начала периода позже даты окончания");
+        }
+
+        return output -> write(cardId, from, to, format, output);
+    }
+
+    void write(Long cardId, LocalDate from, LocalDate to, StatementFormat format, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (format == StatementFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        try {
+            ledgerJdbcRepository.streamStatement(cardId, from.atStartOfDay(), to.plusDays(1).atStartOfDay(), row -> {
+                try {
+                    writer.write(format == StatementFormat.CSV ? toCsv(row) : objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private String toCsv(CardTransactionDto row) {
+        return row.id() + "," + row.transactionId() + "," + row.createdAt() + "," + row.direction() + ","
+                + row.amount().toPlainString() + "," + row.balanceAfter().toPlainString() + ","
+                + (row.counterpartCardId() != null ? row.counterpartCardId() : "") + ","
+                + csvField(row.description());
+    }
+
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
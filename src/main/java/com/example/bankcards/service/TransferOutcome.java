@@ -0,0 +1,30 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.exception.InsufficientException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+
+@Getter
+@RequiredArgsConstructor
+public enum TransferOutcome {
+    COMPLETED(null),
+    INVALID_AMOUNT("Сумма перевода должна быть больше нуля"),
+    ACCESS_DENIED("Одна из карт не принадлежит пользователю"),
+    CARD_BLOCKED("Одна из карт заблокирована"),
+    INSUFFICIENT_FUNDS("Недостаточно средств"),
+    SKIPPED("Пакет отклонен из-за ошибки в другом переводе");
+
+    private final String message;
+
+    public RuntimeException toException() {
+        return switch (this) {
+            case ACCESS_DENIED -> new AccessDeniedException(message);
+            case INVALID_AMOUNT, CARD_BLOCKED -> new CardOperationException(message);
+            case INSUFFICIENT_FUNDS -> new InsufficientException(message);
+            case SKIPPED -> new CardOperationException(message);
+            case COMPLETED -> throw new IllegalStateException("Transfer was completed");
+        };
+    }
+}
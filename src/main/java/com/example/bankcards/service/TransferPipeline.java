@@ -0,0 +1,258 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransferCommand;
+import com.example.bankcards.entity.AsyncTransfer;
+import com.example.bankcards.entity.TransferStatus;
+import com.example.bankcards.exception.ServiceOverloadedException;
+import com.example.bankcards.repository.AsyncTransferRepository;
+import com.example.bankcards.repository.TransferJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransferPipeline {
+
+    private static final String PROCESSING_FAILED = "Ошибка обработки перевода";
+
+    private final CardTransferEngine cardTransferEngine;
+    private final AsyncTransferRepository asyncTransferRepository;
+    private final TransferJdbcRepository transferJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.transfer.async.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.transfer.async.workers:2}")
+    private int workers;
+
+    @Value("${app.transfer.async.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.transfer.async.recover-after:1m}")
+    private Duration recoverAfter;
+
+    private BlockingQueue<QueuedTransfer> queue;
+    private ExecutorService writers;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger counter = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "transfer-writer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            writers.submit(this::drain);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writers.shutdown();
+        writers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    public AsyncTransfer submit(TransferCommand command) {
+        return submit(command, transfer -> {
+        });
+    }
+
+    /**
+     * The PENDING row is committed before the transfer is queued, so a writer can
+     * never pick up a transfer whose row is not visible yet.
+     */
+    public AsyncTransfer submit(TransferCommand command, Consumer<AsyncTransfer> inSameTransaction) {
+        if (queue.remainingCapacity() == 0) {
+            throw new ServiceOverloadedException("Очередь переводов переполнена, повторите попытку позже");
+        }
+
+        AsyncTransfer transfer = transactionTemplate.execute(status -> {
+            AsyncTransfer saved = asyncTransferRepository.save(AsyncTransfer.builder()
+                    .ownerId(command.ownerId())
+                    .fromCardId(command.fromCardId())
+                    .toCardId(command.toCardId())
+                    .amount(command.amount())
+                    .description(command.description())
+                    .status(TransferStatus.PENDING)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            inSameTransaction.accept(saved);
+            return saved;
+        });
+
+        if (!queue.offer(new QueuedTransfer(transfer, command))) {
+            reject(List.of(transfer), "Очередь переводов переполнена");
+            throw new ServiceOverloadedException("Очередь переводов переполнена, повторите попытку позже");
+        }
+        return transfer;
+    }
+
+    /**
+     * Picks up transfers whose queue entry was lost: the node that accepted them
+     * crashed or restarted, or the batch they were in failed transiently. Runs at
+     * startup and then periodically. A transfer that is still queued somewhere else
+     * may be queued twice; the writer that locks its row second finds it no longer
+     * PENDING and skips it.
+     */
+    @Scheduled(fixedDelayString = "${app.transfer.async.recovery-interval:PT30S}")
+    public void recoverPending() {
+        int capacity = Math.min(queue.remainingCapacity() / 2, batchSize * workers * 5);
+        if (capacity == 0) {
+            return;
+        }
+        List<AsyncTransfer> stale = asyncTransferRepository.findByStatusAndCreatedAtBeforeOrderById(
+                TransferStatus.PENDING, LocalDateTime.now().minus(recoverAfter), PageRequest.ofSize(capacity));
+        int requeued = 0;
+        for (AsyncTransfer transfer : stale) {
+            TransferCommand command = new TransferCommand(transfer.getOwnerId(), transfer.getFromCardId(),
+                    transfer.getToCardId(), transfer.getAmount(), transfer.getDescription());
+            if (!queue.offer(new QueuedTransfer(transfer, command))) {
+                break;
+            }
+            requeued++;
+        }
+        if (requeued > 0) {
+            log.info("Re-queued {} pending transfers", requeued);
+        }
+    }
+
+    private void drain() {
+        List<QueuedTransfer> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedTransfer first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * A failed batch is halved and retried until the failing transfer is alone, so one
+     * bad transfer cannot reject the others. A transfer that fails on its own with a
+     * transient error (lock retries exhausted, connection lost) stays PENDING for
+     * {@link #recoverPending()}; only other errors reject it.
+     */
+    void processBatch(List<QueuedTransfer> batch) {
+        try {
+            process(batch);
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                log.warn("Transfer batch of {} failed, retrying in halves: {}", batch.size(), e.getMessage());
+                int half = batch.size() / 2;
+                processBatch(batch.subList(0, half));
+                processBatch(batch.subList(half, batch.size()));
+            } else if (isTransient(e)) {
+                log.warn("Transfer {} left pending after a transient failure", batch.get(0).transfer().getId(), e);
+            } else {
+                log.error("Transfer {} failed", batch.get(0).transfer().getId(), e);
+                rejectFailed(batch);
+            }
+        }
+    }
+
+    /**
+     * Commits the whole batch in one transaction: balance updates, ledger inserts
+     * and status updates each go to the database as a single JDBC batch. Only
+     * transfers whose row is still PENDING under the row lock are applied.
+     */
+    private void process(List<QueuedTransfer> batch) {
+        List<Long> cardIds = batch.stream()
+                .flatMap(queued -> Stream.of(queued.command().fromCardId(), queued.command().toCardId()))
+                .toList();
+
+        cardTransferEngine.executeLocked(cardIds, cards -> {
+            Set<Long> pending = new HashSet<>(asyncTransferRepository.lockPending(
+                    batch.stream().map(queued -> queued.transfer().getId()).toList()));
+            List<QueuedTransfer> claimed = batch.stream()
+                    .filter(queued -> pending.contains(queued.transfer().getId()))
+                    .toList();
+            if (claimed.isEmpty()) {
+                return null;
+            }
+
+            List<TransferOutcome> outcomes = cardTransferEngine.applyAll(
+                    claimed.stream().map(QueuedTransfer::command).toList(), cards);
+            LocalDateTime processedAt = LocalDateTime.now();
+            List<AsyncTransfer> transfers = new ArrayList<>(claimed.size());
+            for (int i = 0; i < claimed.size(); i++) {
+                AsyncTransfer transfer = claimed.get(i).transfer();
+                TransferOutcome outcome = outcomes.get(i);
+                transfer.setStatus(outcome == TransferOutcome.COMPLETED ? TransferStatus.COMPLETED : TransferStatus.REJECTED);
+                transfer.setFailureReason(outcome.getMessage());
+                transfer.setProcessedAt(processedAt);
+                transfers.add(transfer);
+            }
+            transferJdbcRepository.updateAsyncTransfers(transfers);
+            return null;
+        });
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private void rejectFailed(List<QueuedTransfer> batch) {
+        try {
+            reject(batch.stream().map(QueuedTransfer::transfer).toList(), PROCESSING_FAILED);
+        } catch (RuntimeException e) {
+            log.error("Could not mark {} transfers as rejected, they stay pending for recovery", batch.size(), e);
+        }
+    }
+
+    private void reject(List<AsyncTransfer> transfers, String reason) {
+        LocalDateTime processedAt = LocalDateTime.now();
+        transfers.forEach(transfer -> {
+            transfer.setStatus(TransferStatus.REJECTED);
+            transfer.setFailureReason(reason);
+            transfer.setProcessedAt(processedAt);
+        });
+        transactionTemplate.executeWithoutResult(status -> transferJdbcRepository.updateAsyncTransfers(transfers));
+    }
+
+    record QueuedTransfer(AsyncTransfer transfer, TransferCommand command) {
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.BulkCreateUsersRequest;
+import com.example.bankcards.dto.BulkCreateUsersResponse;
+import com.example.bankcards.dto.CreateUserRequest;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.UserOperationException;
+import com.example.bankcards.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Creates users in bulk for migrations from other systems. Each chunk checks its
+ * emails with one query, hashes the accepted passwords in parallel on a pool of its
+ * own (the login pool stays free for interactive traffic) and is inserted in one
+ * transaction, so users and users_roles go out as JDBC batches. BCrypt runs before
+ * the transaction opens and never holds a connection. Records that fail are reported
+ * per index and do not stop the rest.
+ * <p>
+ * With {@code app.user-provisioning.hashing-threads} left at 0 the pool gets half the
+ * cores, at most {@value #MAX_DEFAULT_HASHING_THREADS}, so a large request cannot
+ * starve transfers and balance reads of CPU.
+ */
+@Slf4j
+@Service
+public class UserProvisioningService {
+
+    static final String CREATED = "CREATED";
+    static final String REJECTED = "REJECTED";
+
+    private static final int MAX_USERS = 5000;
+    private static final int MAX_DEFAULT_HASHING_THREADS = 4;
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+");
+    private static final String DUPLICATE_EMAIL = "Пользователь с такой почтой уже существует";
+    private static final String CHUNK_WRITE_FAILED = "Не удалось сохранить пакет пользователей";
+
+    private final UserRepository userRepository;
+    private final RoleService roleService;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int hashingThreads;
+
+    private ForkJoinPool hashingPool;
+
+    public UserProvisioningService(UserRepository userRepository,
+                                   RoleService roleService,
+                                   PasswordEncoder passwordEncoder,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${app.user-provisioning.chunk-size:500}") int chunkSize,
+                                   @Value("${app.user-provisioning.hashing-threads:0}") int hashingThreads) {
+        this.userRepository = userRepository;
+        this.roleService = roleService;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.hashingThreads = hashingThreads > 0 ? hashingThreads
+                : defaultHashingThreads(Runtime.getRuntime().availableProcessors());
+    }
+
+    static int defaultHashingThreads(int cores) {
+        return Math.max(1, Math.min(cores / 2, MAX_DEFAULT_HASHING_THREADS));
+    }
+
+    @PostConstruct
+    void start() {
+        hashingPool = new ForkJoinPool(hashingThreads);
+    }
+
+    @PreDestroy
+    void stop() {
+        hashingPool.shutdown();
+    }
+
+    public BulkCreateUsersResponse createUsers(BulkCreateUsersRequest request) {
+        List<CreateUserRequest> users = request.getUsers();
+        if (users == null || users.isEmpty()) {
+            throw new UserOperationException("Список пользователей пуст");
+        }
+        if (users.size() > MAX_USERS) {
+            throw new UserOperationException("В одном запросе не больше " + MAX_USERS + " пользователей");
+        }
+
+        Role userRole = roleService.getUserRole();
+        BulkCreateUsersResponse.ItemResult[] results = new BulkCreateUsersResponse.ItemResult[users.size()];
+        Set<String> seenEmails = new HashSet<>();
+        for (int from = 0; from < users.size(); from += chunkSize) {
+            createChunk(users, from, Math.min(from + chunkSize, users.size()), userRole, seenEmails, results);
+        }
+
+        int created = (int) Arrays.stream(results).filter(result -> CREATED.equals(result.outcome())).count();
+        log.info("Bulk provisioning created {} of {} users", created, users.size());
+        return new BulkCreateUsersResponse(created, users.size() - created, Arrays.asList(results));
+    }
+
+    void createChunk(List<CreateUserRequest> users, int from, int to, Role userRole, Set<String> seenEmails,
+                     BulkCreateUsersResponse.ItemResult[] results) {
+        Set<String> existingEmails = findExistingEmails(users.subList(from, to));
+
+        List<Integer> accepted = new ArrayList<>(to - from);
+        for (int index = from; index < to; index++) {
+            CreateUserRequest user = users.get(index);
+            String error = validate(user);
+            if (error == null && (existingEmails.contains(normalize(user.email())) || !seenEmails.add(normalize(user.email())))) {
+                error = DUPLICATE_EMAIL;
+            }
+            if (error != null) {
+                results[index] = rejected(index, user, error);
+            } else {
+                accepted.add(index);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        String[] hashes = new String[accepted.size()];
+        hashingPool.submit(() -> Arrays.parallelSetAll(hashes,
+                i -> passwordEncoder.encode(users.get(accepted.get(i)).password()))).join();
+
+        List<User> entities = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            CreateUserRequest user = users.get(accepted.get(i));
+            entities.add(User.builder()
+                    .firstName(user.firstName())
+                    .lastName(user.lastName())
+                    .email(user.email())
+                    .password(hashes[i])
+                    .roles(List.of(userRole))
+                    .build());
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(entities));
+        } catch (DataAccessException e) {
+            log.warn("Bulk provisioning chunk of {} users at index {} could not be written", accepted.size(), from, e);
+            accepted.forEach(index -> results[index] = rejected(index, users.get(index), CHUNK_WRITE_FAILED));
+            return;
+        }
+        for (int i = 0; i < accepted.size(); i++) {
+            int index = accepted.get(i);
+            results[index] = new BulkCreateUsersResponse.ItemResult(index, users.get(index).email(),
+                    entities.get(i).getId(), CREATED, null);
+        }
+    }
+
+    private Set<String> findExistingEmails(List<CreateUserRequest> chunk) {
+        Set<String> emails = chunk.stream()
+                .filter(user -> user != null && user.email() != null)
+                .map(CreateUserRequest::email)
+                .collect(Collectors.toSet());
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        return userRepository.findExistingEmails(emails).stream()
+                .map(UserProvisioningService::normalize)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Same constraints as {@link CreateUserRequest} declares for the single-user endpoint.
+     */
+    private static String validate(CreateUserRequest user) {
+        if (user == null) {
+            return "Пустая запись";
+        }
+        if (!hasLength(user.firstName(), 2, 15)) {
+            return "Имя должно быть от 2 до 15 символов";
+        }
+        if (!hasLength(user.lastName(), 2, 15)) {
+            return "Фамилия должна быть от 2 до 15 символов";
+        }
+        if (user.email() == null || !EMAIL.matcher(user.email()).matches()) {
+            return "Некорректная почта";
+        }
+        if (user.password() == null || user.password().isBlank() || user.password().length() < 6) {
+            return "Пароль должен быть не короче 6 символов";
+        }
+        return null;
+    }
+
+    private static boolean hasLength(String value, int min, int max) {
+        return value != null && !value.isBlank() && value.length() >= min && value.length() <= max;
+    }
+
+    /**
+     * The unique index on users.email compares case-insensitively under the MySQL
+     * collation, so emails differing only in case count as duplicates here as well.
+     */
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static BulkCreateUsersResponse.ItemResult rejected(int index, CreateUserRequest user, String message) {
+        return new BulkCreateUsersResponse.ItemResult(index, user != null ? user.email() : null, null, REJECTED, message);
+    }
+}
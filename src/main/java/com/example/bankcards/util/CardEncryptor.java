@@ -1,47 +1,145 @@
 package com.example.bankcards.util;
 
-import lombok.experimental.UtilityClass;
+import com.example.bankcards.config.CardEncryptionProperties;
+import org.springframework.stereotype.Component;
 import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
-@UtilityClass
+/**
+ * Encrypts card numbers with AES-GCM as "v{version}:" + base64(iv || ciphertext || tag).
+ * Cipher instances are cached per thread, since the provider lookup behind
+ * Cipher.getInstance costs far more than encrypting a 16 digit number; only the
+ * init with a fresh IV happens per call.
+ */
+@Component
 public class CardEncryptor {
 
+    public static final int LEGACY_KEY_VERSION = 0;
+
     private static final String ALGORITHM = "AES";
-    private static final String SECRET_KEY = "arapov-key-aes16";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String LEGACY_TRANSFORMATION = "AES/ECB/PKCS5Padding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final String VERSION_PREFIX = "v";
+    private static final char VERSION_SEPARATOR = ':';
 
-    public static String encrypt(String cardNumber) {
-        try {
-            SecretKeySpec key = new SecretKeySpec(SECRET_KEY.getBytes(), ALGORITHM);
+    private final Map<Integer, SecretKey> keys = new HashMap<>();
+    private final int activeKeyVersion;
+    private final SecretKey legacyKey;
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<Cipher> gcmCiphers = ThreadLocal.withInitial(() -> newCipher(TRANSFORMATION));
+    private final ThreadLocal<Cipher> legacyCiphers = ThreadLocal.withInitial(() -> newCipher(LEGACY_TRANSFORMATION));
 
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, key);
+    public CardEncryptor(CardEncryptionProperties properties) {
+        properties.keys().forEach((version, key) ->
+                keys.put(version, new SecretKeySpec(Base64.getDecoder().decode(key), ALGORITHM)));
+        if (!keys.containsKey(properties.activeKeyVersion())) {
+            throw new IllegalStateException("No card key configured for version " + properties.activeKeyVersion());
+        }
+        this.activeKeyVersion = properties.activeKeyVersion();
+        this.legacyKey = properties.legacyKey() == null ? null
+                : new SecretKeySpec(properties.legacyKey().getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
 
-            byte[] encryptedCard = cipher.doFinal(cardNumber.getBytes());
+    public int getActiveKeyVersion() {
+        return activeKeyVersion;
+    }
 
-            return Base64.getEncoder().encodeToString(encryptedCard);
+    public String encrypt(String cardNumber) {
+        return encrypt(cardNumber, activeKeyVersion);
+    }
 
-        } catch (Exception e) {
+    public String encrypt(String cardNumber, int keyVersion) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+
+            Cipher cipher = gcmCiphers.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key(keyVersion), new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            byte[] encryptedCard = cipher.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8));
+
+            byte[] payload = ByteBuffer.allocate(IV_LENGTH + encryptedCard.length).put(iv).put(encryptedCard).array();
+            return VERSION_PREFIX + keyVersion + VERSION_SEPARATOR + Base64.getEncoder().encodeToString(payload);
+
+        } catch (GeneralSecurityException e) {
             throw new RuntimeException("Encrypt operation is failed", e);
         }
     }
 
-    public static String decrypt(String encryptedCard) {
+    public String decrypt(String encryptedCard) {
         try {
-            SecretKeySpec key = new SecretKeySpec(SECRET_KEY.getBytes(), ALGORITHM);
+            int keyVersion = keyVersionOf(encryptedCard);
+            if (keyVersion == LEGACY_KEY_VERSION) {
+                return decryptLegacy(encryptedCard);
+            }
+
+            byte[] decoded = Base64.getDecoder().decode(encryptedCard.substring(encryptedCard.indexOf(VERSION_SEPARATOR) + 1));
+            Cipher cipher = gcmCiphers.get();
+            cipher.init(Cipher.DECRYPT_MODE, key(keyVersion), new GCMParameterSpec(TAG_LENGTH_BITS, decoded, 0, IV_LENGTH));
+            byte[] decryptedCard = cipher.doFinal(decoded, IV_LENGTH, decoded.length - IV_LENGTH);
+
+            return new String(decryptedCard, StandardCharsets.UTF_8);
+
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new RuntimeException("Decrypt operation is failed", e);
+        }
+    }
 
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, key);
+    public List<String> decryptAll(Collection<String> encryptedCards) {
+        List<String> cardNumbers = new ArrayList<>(encryptedCards.size());
+        for (String encryptedCard : encryptedCards) {
+            cardNumbers.add(decrypt(encryptedCard));
+        }
+        return cardNumbers;
+    }
 
-            byte[] decoded = Base64.getDecoder().decode(encryptedCard);
+    /**
+     * Version the value was written with, LEGACY_KEY_VERSION for values written
+     * before keys were versioned.
+     */
+    public int keyVersionOf(String encryptedCard) {
+        int separator = encryptedCard.indexOf(VERSION_SEPARATOR);
+        if (!encryptedCard.startsWith(VERSION_PREFIX) || separator < 0) {
+            return LEGACY_KEY_VERSION;
+        }
+        return Integer.parseInt(encryptedCard.substring(VERSION_PREFIX.length(), separator));
+    }
 
-            byte[] decryptedCard = cipher.doFinal(decoded);
+    private String decryptLegacy(String encryptedCard) throws GeneralSecurityException {
+        if (legacyKey == null) {
+            throw new IllegalStateException("No legacy card key configured");
+        }
+        Cipher cipher = legacyCiphers.get();
+        cipher.init(Cipher.DECRYPT_MODE, legacyKey);
+        return new String(cipher.doFinal(Base64.getDecoder().decode(encryptedCard)), StandardCharsets.UTF_8);
+    }
 
-            return new String(decryptedCard);
+    private SecretKey key(int keyVersion) {
+        SecretKey key = keys.get(keyVersion);
+        if (key == null) {
+            throw new IllegalStateException("No card key configured for version " + keyVersion);
+        }
+        return key;
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Decrypt operation is failed", e);
+    private static Cipher newCipher(String transformation) {
+        try {
+            return Cipher.getInstance(transformation);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(transformation + " is not available", e);
         }
     }
 }
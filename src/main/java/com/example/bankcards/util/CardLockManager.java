@@ -0,0 +1,63 @@
+package com.example.bankcards.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Component
+public class CardLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final TransferContentionMetrics metrics;
+
+    public CardLockManager(@Value("${app.transfer.lock-stripes:1024}") int stripeCount,
+                           TransferContentionMetrics metrics) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.metrics = metrics;
+    }
+
+    /**
+     * Stripes are always taken in ascending index order, so two callers locking
+     * the same cards in opposite directions can never wait on each other.
+     */
+    public <T> T withLocks(Collection<Long> cardIds, Supplier<T> action) {
+        int[] indexes = cardIds.stream()
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        int locked = 0;
+        try {
+            boolean contended = false;
+            long startedAt = System.nanoTime();
+            for (int index : indexes) {
+                if (!stripes[index].tryLock()) {
+                    contended = true;
+                    stripes[index].lock();
+                }
+                locked++;
+            }
+            if (contended) {
+                metrics.recordContended(cardIds, System.nanoTime() - startedAt);
+            } else {
+                metrics.recordUncontended();
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    private int stripeIndex(Long cardId) {
+        return Math.floorMod(Long.hashCode(cardId) * 0x9E3779B9, stripes.length);
+    }
+}
@@ -7,11 +7,13 @@ public class CardMasker {
 
     private static final String MASK_SYMBOL = "*";
     private static final int VISIBLE_NUMS = 4;
+    private static final String FULLY_MASKED = "**** **** **** ****";
+    private static final String MASKED_PREFIX = "**** **** **** ";
 
     public static String maskCardNumber(String cardNumber) {
 
         if (cardNumber == null || cardNumber.length() < VISIBLE_NUMS) {
-            return "**** **** **** ****";
+            return FULLY_MASKED;
         }
 
         String lastNums = cardNumber.substring(cardNumber.length() - VISIBLE_NUMS);
@@ -23,6 +25,17 @@ public class CardMasker {
         return formatCardNumber(maskedPart + lastNums);
     }
 
+    /**
+     * Masks a 16-digit number from its stored last four digits, so listings never
+     * have to decrypt the full number.
+     */
+    public static String maskLastFour(String lastFour) {
+        if (lastFour == null || lastFour.length() != VISIBLE_NUMS) {
+            return FULLY_MASKED;
+        }
+        return MASKED_PREFIX.concat(lastFour);
+    }
+
     public static String formatCardNumber(String cardNumber) {
         if (cardNumber == null || cardNumber.length() != 16) {
             return cardNumber;
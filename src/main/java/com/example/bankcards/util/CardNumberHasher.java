@@ -0,0 +1,48 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.config.CardEncryptionProperties;
+import org.springframework.stereotype.Component;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Blind index for card numbers: HMAC-SHA256 under a key separate from the
+ * encryption keys. Equal numbers give equal hashes, so a number can be found or
+ * rejected as a duplicate with one indexed lookup instead of decrypting every card,
+ * and the hash stays the same across encryption key rotations.
+ */
+@Component
+public class CardNumberHasher {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    public CardNumberHasher(CardEncryptionProperties properties) {
+        if (properties.indexKey() == null) {
+            throw new IllegalStateException("No card index key configured");
+        }
+        this.key = new SecretKeySpec(Base64.getDecoder().decode(properties.indexKey()), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String hash(String cardNumber) {
+        Mac mac = macs.get();
+        return HexFormat.of().formatHex(mac.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
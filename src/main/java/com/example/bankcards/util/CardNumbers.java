@@ -0,0 +1,25 @@
+package com.example.bankcards.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.regex.Pattern;
+
+@UtilityClass
+public class CardNumbers {
+
+    public static final Pattern FORMAT = Pattern.compile("\\d{16}");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s-]");
+
+    /**
+     * Drops the spaces and dashes a number is usually typed with, so the blind index
+     * sees one form per card. Returns null when the rest is not 16 digits.
+     */
+    public static String normalize(String cardNumber) {
+        if (cardNumber == null) {
+            return null;
+        }
+        String digits = SEPARATORS.matcher(cardNumber).replaceAll("");
+        return FORMAT.matcher(digits).matches() ? digits : null;
+    }
+}
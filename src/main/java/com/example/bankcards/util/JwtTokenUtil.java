@@ -1,12 +1,14 @@
 package com.example.bankcards.util;
 
+import com.example.bankcards.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Date;
@@ -17,27 +19,40 @@ import java.util.Map;
 @Component
 public class JwtTokenUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
 
-    @Value("${jwt.lifetime}")
-    private Duration jwtLifetime;
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final Duration jwtLifetime;
+    private final TtlCache<String, Claims> verifiedTokens;
 
-    public String generateToken(UserDetails userDetails) {
+    public JwtTokenUtil(@Value("${jwt.secret}") String secret,
+                        @Value("${jwt.lifetime}") Duration jwtLifetime,
+                        @Value("${app.security.jwt.verified-cache-size:10000}") int verifiedCacheSize,
+                        @Value("${app.security.jwt.verified-cache-ttl:5m}") Duration verifiedCacheTtl) {
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.jwtLifetime = jwtLifetime;
+        this.verifiedTokens = new TtlCache<>(verifiedCacheSize, verifiedCacheTtl);
+    }
+
+    public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        List<String> rolesList = userDetails.getAuthorities().stream()
+        List<String> rolesList = user.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .toList();
-        claims.put("roles", rolesList);
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ROLES_CLAIM, rolesList);
 
         Date issuedDate = new Date();
         Date expiredDate = new Date(issuedDate.getTime() + jwtLifetime.toMillis());
         return Jwts.builder()
                 .claims(claims)
-                .subject(userDetails.getUsername())
+                .subject(user.getUsername())
                 .issuedAt(issuedDate)
                 .expiration(expiredDate)
-                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), Jwts.SIG.HS256)
+                .signWith(key, Jwts.SIG.HS256)
                 .compact();
     }
 
@@ -46,24 +61,35 @@ public class JwtTokenUtil {
     }
 
     public List<String> getRoles(String token) {
-        return getAllClaimsFromToken(token).get("roles", List.class);
+        return getRoles(getAllClaimsFromToken(token));
     }
 
+    public List<String> getRoles(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        return roles == null ? List.of() : roles.stream().map(String::valueOf).toList();
+    }
+
+    /**
+     * Verifies the token and returns its claims. Tokens verified recently are served
+     * from a cache keyed by their SHA-256, so a client repeating the same bearer token
+     * skips signature and JSON decoding; a cached token past its expiry is parsed again
+     * and fails like any expired one.
+     */
     public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        String tokenHash = Sha256.hex(token);
+        Claims cached = verifiedTokens.get(tokenHash);
+        if (cached != null && cached.getExpiration() != null && cached.getExpiration().after(new Date())) {
+            return cached;
+        }
 
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        verifiedTokens.put(tokenHash, claims);
+        return claims;
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
-                    .build()
-                    .parseSignedClaims(token);
+            getAllClaimsFromToken(token);
             return true;
         } catch (Exception e) {
             return false;
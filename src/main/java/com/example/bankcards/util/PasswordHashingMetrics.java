@@ -0,0 +1,52 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.dto.PasswordHashingStatsDto;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class PasswordHashingMetrics {
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final AtomicLong maxQueueNanos = new AtomicLong();
+    private final LongAdder hashNanos = new LongAdder();
+
+    public void recordCompleted(long waitedNanos, long tookNanos) {
+        completed.increment();
+        queueNanos.add(waitedNanos);
+        maxQueueNanos.accumulateAndGet(waitedNanos, Math::max);
+        hashNanos.add(tookNanos);
+    }
+
+    public long averageHashNanos() {
+        long done = completed.sum();
+        return done == 0 ? 0 : hashNanos.sum() / done;
+    }
+
+    public void recordRejected() {
+        rejected.increment();
+    }
+
+    public void recordTimedOut() {
+        timedOut.increment();
+    }
+
+    public PasswordHashingStatsDto snapshot(int queued) {
+        long done = completed.sum();
+        return new PasswordHashingStatsDto(
+                done,
+                rejected.sum(),
+                timedOut.sum(),
+                done == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(queueNanos.sum() / done),
+                TimeUnit.NANOSECONDS.toMicros(maxQueueNanos.get()),
+                done == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(hashNanos.sum() / done),
+                queued
+        );
+    }
+}
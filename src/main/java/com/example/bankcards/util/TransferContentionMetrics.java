@@ -0,0 +1,97 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.dto.TransferContentionDto;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class TransferContentionMetrics {
+
+    private static final int MAX_TRACKED_CARDS = 10_000;
+    private static final int HOTTEST_CARDS_LIMIT = 20;
+
+    private final LongAdder lockAcquisitions = new LongAdder();
+    private final LongAdder contendedAcquisitions = new LongAdder();
+    private final LongAdder lockWaitNanos = new LongAdder();
+    private final AtomicLong maxLockWaitNanos = new AtomicLong();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhaustedRetries = new LongAdder();
+    private final Map<Long, CardCounters> cards = new ConcurrentHashMap<>();
+
+    public void recordUncontended() {
+        lockAcquisitions.increment();
+    }
+
+    public void recordContended(Collection<Long> cardIds, long waitNanos) {
+        lockAcquisitions.increment();
+        contendedAcquisitions.increment();
+        lockWaitNanos.add(waitNanos);
+        maxLockWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        for (Long cardId : cardIds) {
+            CardCounters counters = countersFor(cardId);
+            if (counters != null) {
+                counters.contended.increment();
+                counters.waitNanos.add(waitNanos);
+            }
+        }
+    }
+
+    public void recordRetry(Collection<Long> cardIds) {
+        retries.increment();
+        for (Long cardId : cardIds) {
+            CardCounters counters = countersFor(cardId);
+            if (counters != null) {
+                counters.retries.increment();
+            }
+        }
+    }
+
+    public void recordExhausted() {
+        exhaustedRetries.increment();
+    }
+
+    public TransferContentionDto snapshot() {
+        long contended = contendedAcquisitions.sum();
+        List<TransferContentionDto.CardContention> hottestCards = cards.entrySet().stream()
+                .map(entry -> new TransferContentionDto.CardContention(
+                        entry.getKey(),
+                        entry.getValue().contended.sum(),
+                        TimeUnit.NANOSECONDS.toMicros(entry.getValue().waitNanos.sum()),
+                        entry.getValue().retries.sum()))
+                .sorted(Comparator.comparingLong(TransferContentionDto.CardContention::lockWaitMicros).reversed())
+                .limit(HOTTEST_CARDS_LIMIT)
+                .toList();
+
+        return new TransferContentionDto(
+                lockAcquisitions.sum(),
+                contended,
+                contended == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(lockWaitNanos.sum() / contended),
+                TimeUnit.NANOSECONDS.toMicros(maxLockWaitNanos.get()),
+                retries.sum(),
+                exhaustedRetries.sum(),
+                hottestCards
+        );
+    }
+
+    private CardCounters countersFor(Long cardId) {
+        CardCounters counters = cards.get(cardId);
+        if (counters == null && cards.size() < MAX_TRACKED_CARDS) {
+            counters = cards.computeIfAbsent(cardId, id -> new CardCounters());
+        }
+        return counters;
+    }
+
+    private static final class CardCounters {
+        final LongAdder contended = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+        final LongAdder retries = new LongAdder();
+    }
+}
@@ -3,6 +3,7 @@ package com.example.bankcards.controller;
 import com.example.bankcards.dto.CreateUserRequest;
 import com.example.bankcards.dto.JwtRequest;
 import com.example.bankcards.dto.JwtResponse;
+import com.example.bankcards.dto.RefreshTokenRequest;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -73,4 +74,25 @@ public class AuthControllerIT {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody().token()).isNotBlank();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRotateRefreshTokenAndRejectReuse() {
+        CreateUserRequest register = new CreateUserRequest("Arapov", "Artem", "arapov@gmail.com", "password123");
+        JwtResponse issued = restTemplate.postForEntity("/api/v1/auth/register", register, JwtResponse.class).getBody();
+
+        ResponseEntity<JwtResponse> rotated = restTemplate.postForEntity(
+                "/api/v1/auth/refresh", new RefreshTokenRequest(issued.refreshToken()), JwtResponse.class);
+
+        assertThat(rotated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(rotated.getBody().token()).isNotBlank();
+        assertThat(rotated.getBody().refreshToken()).isNotEqualTo(issued.refreshToken());
+
+        ResponseEntity<String> reused = restTemplate.postForEntity(
+                "/api/v1/auth/refresh", new RefreshTokenRequest(issued.refreshToken()), String.class);
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        ResponseEntity<String> successorAfterReuse = restTemplate.postForEntity(
+                "/api/v1/auth/refresh", new RefreshTokenRequest(rotated.getBody().refreshToken()), String.class);
+        assertThat(successorAfterReuse.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+}
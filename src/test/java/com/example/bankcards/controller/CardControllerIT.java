@@ -1,12 +1,24 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.AsyncTransferDto;
+import com.example.bankcards.dto.BatchTransferMode;
+import com.example.bankcards.dto.BatchTransferRequest;
+import com.example.bankcards.dto.BatchTransferResponse;
+import com.example.bankcards.dto.CardTransactionDto;
+import com.example.bankcards.dto.CardTransactionPage;
 import com.example.bankcards.dto.JwtRequest;
 import com.example.bankcards.dto.JwtResponse;
+import com.example.bankcards.dto.TransferRequest;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.LedgerDirection;
+import com.example.bankcards.entity.TransferStatus;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.LedgerEntryRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.TokenRevocationRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +35,7 @@ import java.math.BigDecimal;
 import java.security.Key;
 import java.time.LocalDate;
 import java.util.Base64;
+import java.util.List;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
@@ -38,17 +51,29 @@ public class CardControllerIT {
     @Autowired
     private CardRepository cardRepository;
 
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
     @BeforeEach
     void setUp() {
+        ledgerEntryRepository.deleteAllInBatch();
         cardRepository.deleteAll();
         userRepository.deleteAll();
 
         getOrCreateTestUser();
     }
 
+    @AfterEach
+    void tearDown() {
+        ledgerEntryRepository.deleteAllInBatch();
+    }
+
     private User getOrCreateTestUser() {
         return userRepository.findUserByEmail("arapov@gmail.com")
                 .orElseGet(() -> {
@@ -99,6 +124,40 @@ public class CardControllerIT {
         return response.getBody().token();
     }
 
+    @Test
+    void shouldAuthenticateFromTokenClaimsWithoutUserLookup() {
+        String token = getAuthToken();
+        userRepository.deleteAll();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                "/api/v1/cards",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void shouldRejectRevokedToken() {
+        String token = getAuthToken();
+        tokenRevocationRegistry.revokeUser(getOrCreateTestUser().getId());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                "/api/v1/cards",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
     @Test
     void getUserCards_ShouldReturnPageOfCards() {
         String token = getAuthToken();
@@ -119,6 +178,33 @@ public class CardControllerIT {
         assertThat(response.getBody()).contains("content");
     }
 
+    @Test
+    void shouldFilterUserCardsByStatusAndLastFour() {
+        String token = getAuthToken();
+        User user = getOrCreateTestUser();
+        createTestCard(user, BigDecimal.valueOf(100));
+        Card blocked = createTestCard(user, BigDecimal.valueOf(100));
+        blocked.setStatus(CardStatus.BLOCKED);
+        blocked.setLastFourNumbers("7788");
+        cardRepository.save(blocked);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        HttpEntity<Void> entity = new HttpEntity<>(headers);
+
+        ResponseEntity<String> byStatus = restTemplate.exchange(
+                "/api/v1/cards?status=BLOCKED", HttpMethod.GET, entity, String.class);
+        ResponseEntity<String> bySearch = restTemplate.exchange(
+                "/api/v1/cards?search=34", HttpMethod.GET, entity, String.class);
+        ResponseEntity<String> invalid = restTemplate.exchange(
+                "/api/v1/cards?search=abc", HttpMethod.GET, entity, String.class);
+
+        assertThat(byStatus.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(byStatus.getBody()).contains("**** **** **** 7788").doesNotContain("**** **** **** 3456");
+        assertThat(bySearch.getBody()).contains("**** **** **** 3456").doesNotContain("**** **** **** 7788");
+        assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     @Test
     void shouldReturnBalance() {
         String token = getAuthToken();
@@ -158,6 +244,271 @@ public class CardControllerIT {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    void shouldTransferBetweenCards() {
+        String token = getAuthToken();
+        User user = getOrCreateTestUser();
+        Card fromCard = createTestCard(user, BigDecimal.valueOf(1000));
+        Card toCard = createTestCard(user, BigDecimal.valueOf(500));
+
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(fromCard.getId());
+        request.setToCardId(toCard.getId());
+        request.setAmount(BigDecimal.valueOf(300));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        HttpEntity<TransferRequest> entity = new HttpEntity<>(request, headers);
+
+        ResponseEntity<Void> response = restTemplate.exchange(
+                "/api/v1/cards/transfer",
+                HttpMethod.POST,
+                entity,
+                Void.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(cardRepository.findById(fromCard.getId()).get().getBalance()).isEqualByComparingTo("700");
+        assertThat(cardRepository.findById(toCard.getId()).get().getBalance()).isEqualByComparingTo("800");
+        assertThat(ledgerEntryRepository.findAll())
+                .filteredOn(entry -> entry.getCard().getId().equals(fromCard.getId()))
+                .singleElement()
+                .satisfies(entry -> {
+                    assertThat(entry.getDirection()).isEqualTo(LedgerDirection.DEBIT);
+                    assertThat(entry.getSeq()).isEqualTo(1L);
+                    assertThat(entry.getBalanceAfter()).isEqualByComparingTo("700");
+                });
+    }
+
+    @Test
+    void shouldApplyTransferOnceForRepeatedIdempotencyKey() {
+        String token = getAuthToken();
+        User user = getOrCreateTestUser();
+        Card fromCard = createTestCard(user, BigDecimal.valueOf(1000));
+        Card toCard = createTestCard(user, BigDecimal.valueOf(500));
+
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(fromCard.getId());
+        request.setToCardId(toCard.getId());
+        request.setAmount(BigDecimal.valueOf(300));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        headers.set("Idempotency-Key", "transfer-" + fromCard.getId());
+        HttpEntity<TransferRequest> entity = new HttpEntity<>(request, headers);
+
+        for (int i = 0; i < 2; i++) {
+            ResponseEntity<Void> response = restTemplate.exchange(
+                    "/api/v1/cards/transfer",
+                    HttpMethod.POST,
+                    entity,
+                    Void.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+
+        request.setAmount(BigDecimal.valueOf(200));
+        ResponseEntity<String> reused = restTemplate.exchange(
+                "/api/v1/cards/transfer",
+                HttpMethod.POST,
+                new HttpEntity<>(request, headers),
+                String.class);
+
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(cardRepository.findById(fromCard.getId()).get().getBalance()).isEqualByComparingTo("700");
+        assertThat(cardRepository.findById(toCard.getId()).get().getBalance()).isEqualByComparingTo("800");
+    }
+
+    @Test
+    void shouldRejectTransferWithInsufficientFunds() {
+        String token = getAuthToken();
+        User user = getOrCreateTestUser();
+        Card fromCard = createTestCard(user, BigDecimal.valueOf(100));
+        Card toCard = createTestCard(user, BigDecimal.valueOf(500));
+
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(fromCard.getId());
+        request.setToCardId(toCard.getId());
+        request.setAmount(BigDecimal.valueOf(300));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        HttpEntity<TransferRequest> entity = new HttpEntity<>(request, headers);
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                "/api/v1/cards/transfer",
+                HttpMethod.POST,
+                entity,
+                String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(cardRepository.findById(fromCard.getId()).get().getBalance()).isEqualByComparingTo("100");
+        assertThat(cardRepository.findById(toCard.getId()).get().getBalance()).isEqualByComparingTo("500");
+    }
+
+    @Test
+    void shouldPageCardTransactionsWithCursor() {
+        String token = getAuthToken();
+        User user = getOrCreateTestUser();
+        Card fromCard = createTestCard(user, BigDecimal.valueOf(1000));
+        Card toCard = createTestCard(user, BigDecimal.valueOf(0));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        for (int amount = 100; amount <= 300; amount += 100) {
+            TransferRequest request = new TransferRequest();
+            request.setFromCardId(fromCard.getId());
+            request.setToCardId(toCard.getId());
+            request.setAmount(BigDecimal.valueOf(amount));
+            restTemplate.exchange("/api/v1/cards/transfer", HttpMethod.POST, new HttpEntity<>(request, headers), Void.class);
+        }
+
+        String url = "/api/v1/cards/" + fromCard.getId() + "/transactions?size=2";
+        ResponseEntity<CardTransactionPage> first = restTemplate.exchange(
+                url, HttpMethod.GET, new HttpEntity<>(headers), CardTransactionPage.class);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getBody().items()).extracting(CardTransactionDto::balanceAfter)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(BigDecimal.valueOf(400), BigDecimal.valueOf(700));
+        assertThat(first.getBody().nextCursor()).isNotNull();
+
+        ResponseEntity<CardTransactionPage> second = restTemplate.exchange(
+                url + "&cursor=" + first.getBody().nextCursor(), HttpMethod.GET, new HttpEntity<>(headers),
+                CardTransactionPage.class);
+
+        assertThat(second.getBody().items()).singleElement()
+                .satisfies(item -> {
+                    assertThat(item.balanceAfter()).isEqualByComparingTo("900");
+                    assertThat(item.counterpartCardId()).isEqualTo(toCard.getId());
+                });
+        assertThat(second.getBody().nextCursor()).isNull();
+
+        ResponseEntity<CardTransactionPage> filtered = restTemplate.exchange(
+                "/api/v1/cards/" + fromCard.getId() + "/transactions?direction=CREDIT", HttpMethod.GET,
+                new HttpEntity<>(headers), CardTransactionPage.class);
+
+        assertThat(filtered.getBody().items()).isEmpty();
+    }
+
+    @Test
+    void shouldExportStatementAsCsvAndNdjson() {
+        String token = getAuthToken();
+        User user = getOrCreateTestUser();
+        Card fromCard = createTestCard(user, BigDecimal.valueOf(1000));
+        Card toCard = createTestCard(user, BigDecimal.valueOf(0));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(fromCard.getId());
+        request.setToCardId(toCard.getId());
+        request.setAmount(BigDecimal.valueOf(250));
+        restTemplate.exchange("/api/v1/cards/transfer", HttpMethod.POST, new HttpEntity<>(request, headers), Void.class);
+
+        String url = "/api/v1/cards/" + fromCard.getId() + "/statement?from=" + LocalDate.now().minusDays(1)
+                + "&to=" + LocalDate.now();
+        ResponseEntity<String> csv = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(csv.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(csv.getHeaders().getContentType().isCompatibleWith(MediaType.parseMediaType("text/csv"))).isTrue();
+        assertThat(csv.getBody().lines().toList()).hasSize(2);
+        assertThat(csv.getBody().lines().skip(1).findFirst().orElseThrow())
+                .contains(",DEBIT,250.00,750.00," + toCard.getId() + ",");
+
+        ResponseEntity<String> ndjson = restTemplate.exchange(
+                url + "&format=ndjson", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(ndjson.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ndjson.getBody().lines().toList()).singleElement().asString().contains("\"direction\":\"DEBIT\"");
+    }
+
+    @Test
+    void shouldAcceptAsyncTransferAndReportStatus() throws InterruptedException {
+        String token = getAuthToken();
+        User user = getOrCreateTestUser();
+        Card fromCard = createTestCard(user, BigDecimal.valueOf(1000));
+        Card toCard = createTestCard(user, BigDecimal.valueOf(500));
+
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(fromCard.getId());
+        request.setToCardId(toCard.getId());
+        request.setAmount(BigDecimal.valueOf(250));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+
+        ResponseEntity<AsyncTransferDto> accepted = restTemplate.exchange(
+                "/api/v1/cards/transfer?async=true",
+                HttpMethod.POST,
+                new HttpEntity<>(request, headers),
+                AsyncTransferDto.class);
+
+        assertThat(accepted.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(accepted.getBody().status()).isEqualTo(TransferStatus.PENDING);
+
+        AsyncTransferDto status = accepted.getBody();
+        for (int i = 0; i < 50 && status.status() == TransferStatus.PENDING; i++) {
+            Thread.sleep(100);
+            status = restTemplate.exchange(
+                    "/api/v1/cards/transfers/" + accepted.getBody().id(),
+                    HttpMethod.GET,
+                    new HttpEntity<>(headers),
+                    AsyncTransferDto.class).getBody();
+        }
+
+        assertThat(status.status()).isEqualTo(TransferStatus.COMPLETED);
+        assertThat(cardRepository.findById(fromCard.getId()).get().getBalance()).isEqualByComparingTo("750");
+        assertThat(cardRepository.findById(toCard.getId()).get().getBalance()).isEqualByComparingTo("750");
+    }
+
+    @Test
+    void shouldApplyBatchTransfersPerMode() {
+        String token = getAuthToken();
+        User user = getOrCreateTestUser();
+        Card fromCard = createTestCard(user, BigDecimal.valueOf(1000));
+        Card toCard = createTestCard(user, BigDecimal.valueOf(0));
+
+        TransferRequest valid = new TransferRequest();
+        valid.setFromCardId(fromCard.getId());
+        valid.setToCardId(toCard.getId());
+        valid.setAmount(BigDecimal.valueOf(400));
+
+        TransferRequest tooLarge = new TransferRequest();
+        tooLarge.setFromCardId(fromCard.getId());
+        tooLarge.setToCardId(toCard.getId());
+        tooLarge.setAmount(BigDecimal.valueOf(900));
+
+        BatchTransferRequest request = new BatchTransferRequest();
+        request.setTransfers(List.of(valid, tooLarge));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+
+        ResponseEntity<BatchTransferResponse> atomic = restTemplate.exchange(
+                "/api/v1/cards/transfers/batch",
+                HttpMethod.POST,
+                new HttpEntity<>(request, headers),
+                BatchTransferResponse.class);
+
+        assertThat(atomic.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(atomic.getBody().completed()).isZero();
+        assertThat(atomic.getBody().results()).extracting(BatchTransferResponse.ItemResult::outcome)
+                .containsExactly("SKIPPED", "INSUFFICIENT_FUNDS");
+        assertThat(cardRepository.findById(fromCard.getId()).get().getBalance()).isEqualByComparingTo("1000");
+
+        request.setMode(BatchTransferMode.BEST_EFFORT);
+        ResponseEntity<BatchTransferResponse> bestEffort = restTemplate.exchange(
+                "/api/v1/cards/transfers/batch",
+                HttpMethod.POST,
+                new HttpEntity<>(request, headers),
+                BatchTransferResponse.class);
+
+        assertThat(bestEffort.getBody().completed()).isEqualTo(1);
+        assertThat(bestEffort.getBody().results()).extracting(BatchTransferResponse.ItemResult::outcome)
+                .containsExactly("COMPLETED", "INSUFFICIENT_FUNDS");
+        assertThat(cardRepository.findById(fromCard.getId()).get().getBalance()).isEqualByComparingTo("600");
+        assertThat(cardRepository.findById(toCard.getId()).get().getBalance()).isEqualByComparingTo("400");
+    }
+
     @Test
     void shouldReturnAuthorizedAccess() {
 
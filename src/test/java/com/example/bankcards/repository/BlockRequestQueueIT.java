@@ -0,0 +1,157 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.BlockRequestDecisionRequest;
+import com.example.bankcards.dto.BlockRequestDecisionResponse;
+import com.example.bankcards.dto.BlockRequestDto;
+import com.example.bankcards.dto.KeysetSlice;
+import com.example.bankcards.entity.BlockCardRequest;
+import com.example.bankcards.entity.BlockRequestStatus;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.service.AdminCardManagementService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class BlockRequestQueueIT {
+
+    @Autowired
+    private AdminCardManagementService adminCardManagementService;
+
+    @Autowired
+    private BlockCardRequestRepository blockCardRequestRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private Card emptyCard;
+    private Card fundedCard;
+    private Card otherCard;
+    private List<BlockCardRequest> requests;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .firstName("Block")
+                .lastName("Owner")
+                .email("block-owner@gmail.com")
+                .password("password")
+                .build());
+        emptyCard = cardRepository.save(card("0001", BigDecimal.ZERO));
+        fundedCard = cardRepository.save(card("0002", BigDecimal.TEN));
+        otherCard = cardRepository.save(card("0003", BigDecimal.ZERO));
+        requests = blockCardRequestRepository.saveAll(List.of(
+                request(emptyCard, "Lost"),
+                request(emptyCard, "Lost again"),
+                request(fundedCard, "Stolen"),
+                request(otherCard, "Damaged")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        blockCardRequestRepository.deleteAllInBatch();
+        cardRepository.deleteAllInBatch();
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void shouldListPendingQueueOncePerCard() {
+        KeysetSlice<BlockRequestDto> first = adminCardManagementService.getPendingBlockRequests(0L, 2);
+        KeysetSlice<BlockRequestDto> second = adminCardManagementService.getPendingBlockRequests(first.nextAfter(), 2);
+
+        assertThat(first.items()).extracting(BlockRequestDto::reason).containsExactly("Lost", "Stolen");
+        assertThat(first.items().get(0).maskedCardNumber()).isEqualTo("**** **** **** 0001");
+        assertThat(second.items()).extracting(BlockRequestDto::reason).containsExactly("Damaged");
+        assertThat(second.nextAfter()).isNull();
+    }
+
+    @Test
+    void shouldApproveRequestsAndBlockCardsWithZeroBalance() {
+        BlockRequestDecisionResponse response = adminCardManagementService.decideBlockRequests(
+                decision(BlockRequestStatus.APPROVED, requests.get(0), requests.get(2)));
+
+        assertThat(response.cardsBlocked()).isEqualTo(1);
+        assertThat(response.requestsUpdated()).isEqualTo(2);
+        assertThat(cardRepository.findById(emptyCard.getId())).hasValueSatisfying(card ->
+                assertThat(card.getStatus()).isEqualTo(CardStatus.BLOCKED));
+        assertThat(cardRepository.findById(fundedCard.getId())).hasValueSatisfying(card ->
+                assertThat(card.getStatus()).isEqualTo(CardStatus.ACTIVE));
+        assertThat(statuses()).containsExactly(BlockRequestStatus.APPROVED, BlockRequestStatus.APPROVED,
+                BlockRequestStatus.PENDING, BlockRequestStatus.PENDING);
+    }
+
+    @Test
+    void shouldRejectRequestsTogetherWithTheirDuplicates() {
+        BlockRequestDecisionResponse response = adminCardManagementService.decideBlockRequests(
+                decision(BlockRequestStatus.REJECTED, requests.get(1), requests.get(3)));
+
+        assertThat(response.requestsUpdated()).isEqualTo(3);
+        assertThat(statuses()).containsExactly(BlockRequestStatus.REJECTED, BlockRequestStatus.REJECTED,
+                BlockRequestStatus.PENDING, BlockRequestStatus.REJECTED);
+        assertThat(cardRepository.findById(otherCard.getId())).hasValueSatisfying(card ->
+                assertThat(card.getStatus()).isEqualTo(CardStatus.ACTIVE));
+    }
+
+    @Test
+    void shouldCloseRequestsOfDeletedCardAndKeepThemOutOfQueue() {
+        BlockCardRequest orphan = blockCardRequestRepository.save(request(null, "Card already gone"));
+
+        adminCardManagementService.deleteCard(otherCard.getId());
+
+        assertThat(blockCardRequestRepository.findById(requests.get(3).getId())).hasValueSatisfying(request -> {
+            assertThat(request.getStatus()).isEqualTo(BlockRequestStatus.REJECTED);
+            assertThat(request.getCard()).isNull();
+        });
+        KeysetSlice<BlockRequestDto> queue = adminCardManagementService.getPendingBlockRequests(0L, 10);
+        assertThat(queue.items()).extracting(BlockRequestDto::reason).containsExactly("Lost", "Stolen");
+        assertThat(queue.items()).extracting(BlockRequestDto::id).doesNotContain(orphan.getId());
+    }
+
+    private List<BlockRequestStatus> statuses() {
+        return requests.stream()
+                .map(request -> blockCardRequestRepository.findById(request.getId()).orElseThrow().getStatus())
+                .toList();
+    }
+
+    private Card card(String lastFour, BigDecimal balance) {
+        return Card.builder()
+                .cardNumber("encrypted-" + lastFour)
+                .lastFourNumbers(lastFour)
+                .expiryDate(LocalDate.now().plusYears(3))
+                .balance(balance)
+                .owner(owner)
+                .status(CardStatus.ACTIVE)
+                .build();
+    }
+
+    private BlockCardRequest request(Card card, String reason) {
+        return BlockCardRequest.builder()
+                .card(card)
+                .user(owner)
+                .reason(reason)
+                .status(BlockRequestStatus.PENDING)
+                .build();
+    }
+
+    private static BlockRequestDecisionRequest decision(BlockRequestStatus status, BlockCardRequest... requests) {
+        BlockRequestDecisionRequest decision = new BlockRequestDecisionRequest();
+        decision.setRequestIds(Arrays.stream(requests).map(BlockCardRequest::getId).toList());
+        decision.setDecision(status);
+        return decision;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class CardBatchInsertIT {
+
+    private static final int ROWS = 1000;
+    private static final int BATCH_SIZE = 100;
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private User owner;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .firstName("Batch")
+                .lastName("Owner")
+                .email("batch-owner@gmail.com")
+                .password("password")
+                .build());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        cardRepository.deleteAllInBatch();
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void shouldInsertCardsInJdbcBatches() {
+        List<Card> cards = IntStream.range(0, ROWS)
+                .mapToObj(i -> Card.builder()
+                        .cardNumber("encrypted-" + i)
+                        .lastFourNumbers(String.format("%04d", i))
+                        .expiryDate(LocalDate.now().plusYears(3))
+                        .balance(BigDecimal.ZERO)
+                        .owner(owner)
+                        .status(CardStatus.ACTIVE)
+                        .build())
+                .toList();
+
+        JdbcCallCounter counter = new JdbcCallCounter();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).addEventListeners(counter);
+            cardRepository.saveAll(cards);
+        });
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ROWS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(counter.batches).isEqualTo(ROWS / BATCH_SIZE);
+        assertThat(counter.statements).isEqualTo(2 * ROWS / ID_ALLOCATION_SIZE);
+        assertThat(cards).extracting(Card::getId).doesNotContainNull().doesNotHaveDuplicates();
+    }
+
+    private static class JdbcCallCounter extends BaseSessionEventListener {
+
+        private int batches;
+        private int statements;
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            batches++;
+        }
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            statements++;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.CardImportErrorDto;
+import com.example.bankcards.dto.CardImportFormat;
+import com.example.bankcards.dto.CardImportJobDto;
+import com.example.bankcards.dto.KeysetSlice;
+import com.example.bankcards.entity.CardImportStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.service.CardImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.card-import.chunk-size=100")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class CardImportIT {
+
+    private static final int ROWS = 250;
+
+    @Autowired
+    private CardImportService cardImportService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .firstName("Import")
+                .lastName("Owner")
+                .email("import-owner@gmail.com")
+                .password("password")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM card_import_jobs");
+        cardRepository.deleteAllInBatch();
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void shouldImportCsvInChunksAndReportBadRows() throws Exception {
+        String expiry = LocalDate.now().plusYears(3).toString();
+        String csv = "ownerId,expiryDate,initialBalance\n"
+                + IntStream.range(0, ROWS)
+                .mapToObj(i -> i == 10 ? "999999," + expiry + ",5" : owner.getId() + "," + expiry + ",5")
+                .collect(Collectors.joining("\n"));
+
+        CardImportJobDto job = cardImportService.submit(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), CardImportFormat.CSV);
+        for (int i = 0; i < 200 && job.status() != CardImportStatus.COMPLETED && job.status() != CardImportStatus.FAILED; i++) {
+            Thread.sleep(50);
+            job = cardImportService.getJob(job.id());
+        }
+
+        assertThat(job.status()).isEqualTo(CardImportStatus.COMPLETED);
+        assertThat(job.rowsProcessed()).isEqualTo(ROWS);
+        assertThat(job.rowsImported()).isEqualTo(ROWS - 1);
+        assertThat(job.rowsFailed()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cards WHERE user_id = ?", Long.class, owner.getId()))
+                .isEqualTo(ROWS - 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT card_number_hash) FROM cards WHERE user_id = ?",
+                Long.class, owner.getId())).isEqualTo(ROWS - 1);
+
+        KeysetSlice<CardImportErrorDto> errors = cardImportService.getErrors(job.id(), 0L, 10);
+        assertThat(errors.items()).hasSize(1);
+        assertThat(errors.items().get(0).lineNumber()).isEqualTo(12);
+        assertThat(errors.items().get(0).message()).isEqualTo("Пользователь не найден: 999999");
+    }
+}
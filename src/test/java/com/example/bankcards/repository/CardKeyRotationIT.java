@@ -0,0 +1,134 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.CardKeyRotationDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardKeyRotation;
+import com.example.bankcards.entity.CardKeyRotationStatus;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.service.CardKeyRotationService;
+import com.example.bankcards.util.CardEncryptor;
+import com.example.bankcards.util.CardNumberHasher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.IntStream;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class CardKeyRotationIT {
+
+    private static final int CARDS = 30;
+
+    @Autowired
+    private CardKeyRotationService cardKeyRotationService;
+
+    @Autowired
+    private CardKeyRotationRepository cardKeyRotationRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardEncryptor cardEncryptor;
+
+    @Autowired
+    private CardNumberHasher cardNumberHasher;
+
+    private User owner;
+
+    @AfterEach
+    void tearDown() {
+        cardKeyRotationRepository.deleteAllInBatch();
+        cardRepository.deleteAllInBatch();
+        if (owner != null) {
+            userRepository.delete(owner);
+        }
+    }
+
+    @Test
+    void shouldRewriteLegacyCardNumbersUnderActiveKeyAndBackfillIndex() throws Exception {
+        owner = userRepository.save(User.builder()
+                .firstName("Rotation")
+                .lastName("Owner")
+                .email("rotation-owner@gmail.com")
+                .password("password")
+                .build());
+        Cipher legacy = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        legacy.init(Cipher.ENCRYPT_MODE, new SecretKeySpec("arapov-key-aes16".getBytes(StandardCharsets.UTF_8), "AES"));
+        List<Card> cards = cardRepository.saveAll(IntStream.range(0, CARDS)
+                .mapToObj(i -> Card.builder()
+                        .cardNumber(encryptLegacy(legacy, String.format("427612345678%04d", i)))
+                        .lastFourNumbers(String.format("%04d", i))
+                        .expiryDate(LocalDate.now().plusYears(3))
+                        .balance(BigDecimal.TEN)
+                        .owner(owner)
+                        .status(CardStatus.ACTIVE)
+                        .build())
+                .toList());
+
+        cardKeyRotationService.startRotation();
+        CardKeyRotationDto progress = cardKeyRotationService.getProgress();
+        for (int i = 0; i < 100 && progress.status() == CardKeyRotationStatus.RUNNING; i++) {
+            Thread.sleep(50);
+            progress = cardKeyRotationService.getProgress();
+        }
+
+        assertThat(progress.status()).isEqualTo(CardKeyRotationStatus.COMPLETED);
+        assertThat(progress.rowsRotated()).isGreaterThanOrEqualTo(CARDS);
+        for (int i = 0; i < CARDS; i++) {
+            Card stored = cardRepository.findById(cards.get(i).getId()).orElseThrow();
+            String cardNumber = String.format("427612345678%04d", i);
+            assertThat(cardEncryptor.keyVersionOf(stored.getCardNumber())).isEqualTo(cardEncryptor.getActiveKeyVersion());
+            assertThat(cardEncryptor.decrypt(stored.getCardNumber())).isEqualTo(cardNumber);
+            assertThat(stored.getCardNumberHash()).isEqualTo(cardNumberHasher.hash(cardNumber));
+        }
+    }
+
+    @Test
+    void shouldLetOnlyOneInstanceClaimRunningRotation() {
+        LocalDateTime now = LocalDateTime.now();
+        CardKeyRotation running = cardKeyRotationRepository.save(CardKeyRotation.builder()
+                .targetKeyVersion(cardEncryptor.getActiveKeyVersion())
+                .status(CardKeyRotationStatus.RUNNING)
+                .startedAt(now)
+                .updatedAt(now)
+                .leaseOwner("instance-a")
+                .leaseUntil(now.plusMinutes(2))
+                .build());
+
+        assertThat(cardKeyRotationRepository.claim(running.getId(), "instance-b", now.plusMinutes(2), now)).isZero();
+        assertThat(cardKeyRotationRepository.claim(running.getId(), "instance-b", now.plusMinutes(5), now.plusMinutes(3)))
+                .isEqualTo(1);
+        assertThat(cardKeyRotationRepository.claim(running.getId(), "instance-a", now.plusMinutes(5), now.plusMinutes(3)))
+                .isZero();
+
+        assertThat(cardKeyRotationRepository.pause(running.getId(), now)).isEqualTo(1);
+        assertThat(cardKeyRotationRepository.findById(running.getId()).orElseThrow().getStatus())
+                .isEqualTo(CardKeyRotationStatus.PAUSED);
+        assertThat(cardKeyRotationRepository.claim(running.getId(), "instance-a", now.plusMinutes(5), now.plusMinutes(10)))
+                .isZero();
+    }
+
+    private static String encryptLegacy(Cipher cipher, String cardNumber) {
+        try {
+            return Base64.getEncoder().encodeToString(cipher.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class CardPageQueryIT {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User owner;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .firstName("Page")
+                .lastName("Owner")
+                .email("page-owner@gmail.com")
+                .password("password")
+                .build());
+        cardRepository.saveAll(IntStream.range(0, PAGE_SIZE)
+                .mapToObj(i -> Card.builder()
+                        .cardNumber("encrypted-" + i)
+                        .lastFourNumbers(String.format("%04d", i))
+                        .expiryDate(LocalDate.now().plusYears(3))
+                        .balance(BigDecimal.TEN)
+                        .owner(owner)
+                        .status(CardStatus.ACTIVE)
+                        .build())
+                .toList());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        cardRepository.deleteAllInBatch();
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void shouldLoadCardPageWithOwnerReferenceInTwoQueries() {
+        Page<CardDto> page = transactionTemplate.execute(status ->
+                cardRepository.searchPage(CardSpecifications.ownedBy(owner.getId()), PageRequest.of(0, PAGE_SIZE))
+                        .map(CardDto::from));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(page.getTotalElements()).isEqualTo(PAGE_SIZE);
+        assertThat(page.getContent()).allSatisfy(card -> {
+            assertThat(card.maskedCardNumber()).startsWith("**** **** **** ");
+            assertThat(card.owner().id()).isEqualTo(owner.getId());
+            assertThat(card.owner().email()).isEqualTo(owner.getEmail());
+        });
+    }
+
+    @Test
+    void shouldWalkKeysetPagesWithoutCountQuery() {
+        List<CardPageRow> first = cardRepository.findPageAfter(0L, PageRequest.ofSize(PAGE_SIZE / 2));
+        Long after = first.get(first.size() - 1).id();
+        statistics.clear();
+
+        List<CardPageRow> second = cardRepository.findPageAfter(after, PageRequest.ofSize(PAGE_SIZE));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(second).hasSizeGreaterThanOrEqualTo(PAGE_SIZE / 2);
+        assertThat(second).allSatisfy(row -> assertThat(row.id()).isGreaterThan(after));
+        assertThat(second).extracting(CardPageRow::id).isSorted();
+    }
+}
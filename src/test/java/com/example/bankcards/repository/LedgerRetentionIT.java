@@ -0,0 +1,90 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.TransferRequest;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.service.AdminCardManagementService;
+import com.example.bankcards.service.CardTransferEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class LedgerRetentionIT {
+
+    @Autowired
+    private CardTransferEngine cardTransferEngine;
+
+    @Autowired
+    private AdminCardManagementService adminCardManagementService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Card source;
+    private Card target;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .firstName("Ledger")
+                .lastName("Owner")
+                .email("ledger-owner@gmail.com")
+                .password("password")
+                .build());
+        source = cardRepository.save(card("0001", BigDecimal.valueOf(100)));
+        target = cardRepository.save(card("0002", BigDecimal.ZERO));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM ledger_entries WHERE card_id IS NULL OR card_id IN (?, ?)",
+                source.getId(), target.getId());
+        jdbcTemplate.update("DELETE FROM transactions WHERE from_card_id IS NULL OR to_card_id = ?", target.getId());
+        cardRepository.deleteAllInBatch();
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void shouldKeepLedgerEntriesWhenCardIsDeleted() {
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(source.getId());
+        request.setToCardId(target.getId());
+        request.setAmount(BigDecimal.valueOf(100));
+        cardTransferEngine.transfer(owner.getId(), request);
+
+        adminCardManagementService.deleteCard(source.getId());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger_entries WHERE card_id IS NULL", Long.class))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger_entries WHERE card_id = ?", Long.class,
+                target.getId())).isEqualTo(1);
+    }
+
+    private Card card(String lastFour, BigDecimal balance) {
+        return Card.builder()
+                .cardNumber("encrypted-" + lastFour)
+                .lastFourNumbers(lastFour)
+                .expiryDate(LocalDate.now().plusYears(3))
+                .balance(balance)
+                .owner(owner)
+                .status(CardStatus.ACTIVE)
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.service.CardNumberIssuer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class SequenceBlockReservationIT {
+
+    private static final String BIN = "4000001";
+
+    @Autowired
+    private SequenceBlockJdbcRepository sequenceBlockJdbcRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM id_sequences WHERE sequence_name = ?", "pan_" + BIN);
+    }
+
+    @Test
+    void shouldNeverIssueTheSameNumberFromTwoNodes() throws Exception {
+        List<CardNumberIssuer> nodes = List.of(
+                new CardNumberIssuer(sequenceBlockJdbcRepository, transactionManager, BIN, 50),
+                new CardNumberIssuer(sequenceBlockJdbcRepository, transactionManager, BIN, 50));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<List<String>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                CardNumberIssuer node = nodes.get(i % 2);
+                results.add(executor.submit((Callable<List<String>>) () -> {
+                    List<String> numbers = new ArrayList<>();
+                    for (int j = 0; j < 25; j++) {
+                        numbers.addAll(node.issue(20));
+                    }
+                    return numbers;
+                }));
+            }
+            Set<String> issued = new HashSet<>();
+            int total = 0;
+            for (Future<List<String>> result : results) {
+                List<String> numbers = result.get();
+                issued.addAll(numbers);
+                total += numbers.size();
+            }
+
+            assertThat(total).isEqualTo(2000);
+            assertThat(issued).hasSize(2000);
+            assertThat(jdbcTemplate.queryForObject("SELECT next_val FROM id_sequences WHERE sequence_name = ?",
+                    Long.class, "pan_" + BIN)).isEqualTo(2000L);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.LedgerDirection;
+import com.example.bankcards.entity.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.statement.fetch-size=500")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class StatementStreamIT {
+
+    private static final int ROWS = 100_000;
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Autowired
+    private LedgerJdbcRepository ledgerJdbcRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Card card;
+    private long transactionId;
+
+    @BeforeAll
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .firstName("Statement")
+                .lastName("Owner")
+                .email("statement-owner@gmail.com")
+                .password("password")
+                .build());
+        card = cardRepository.save(Card.builder()
+                .cardNumber("encrypted-statement")
+                .lastFourNumbers("0001")
+                .expiryDate(LocalDate.now().plusYears(3))
+                .balance(BigDecimal.ZERO)
+                .owner(owner)
+                .status(CardStatus.ACTIVE)
+                .build());
+        transactionId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM transactions", Long.class);
+        jdbcTemplate.update("INSERT INTO transactions (id, from_card_id, to_card_id, amount, description) "
+                + "VALUES (?, ?, ?, 1.00, 'Перевод между картами')", transactionId, card.getId(), card.getId());
+        long firstId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM ledger_entries", Long.class);
+        jdbcTemplate.batchUpdate("INSERT INTO ledger_entries "
+                        + "(id, card_id, transaction_id, seq, direction, amount, balance_after, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, 1.00, ?, ?)",
+                LongStream.rangeClosed(1, ROWS)
+                        .mapToObj(seq -> new Object[]{firstId + seq, card.getId(), transactionId, seq,
+                                LedgerDirection.CREDIT.name(), BigDecimal.valueOf(seq),
+                                Timestamp.valueOf(START.plusSeconds(seq))})
+                        .toList());
+    }
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM ledger_entries WHERE transaction_id = ?", transactionId);
+        jdbcTemplate.update("DELETE FROM transactions WHERE id = ?", transactionId);
+        cardRepository.deleteAllInBatch();
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void shouldStreamWholeLedgerInOrderThroughCursor() {
+        AtomicLong count = new AtomicLong();
+        AtomicLong lastBalance = new AtomicLong();
+
+        ledgerJdbcRepository.streamStatement(card.getId(), START, START.plusDays(30), row -> {
+            assertThat(row.balanceAfter().longValue()).isEqualTo(lastBalance.get() + 1);
+            assertThat(row.counterpartCardId()).isEqualTo(card.getId());
+            lastBalance.set(row.balanceAfter().longValue());
+            count.incrementAndGet();
+        });
+
+        assertThat(count.get()).isEqualTo(ROWS);
+    }
+
+    @Test
+    void shouldStreamOnlyRowsInsidePeriod() {
+        AtomicLong count = new AtomicLong();
+
+        ledgerJdbcRepository.streamStatement(card.getId(), START.plusSeconds(1001), START.plusSeconds(2001),
+                row -> count.incrementAndGet());
+
+        assertThat(count.get()).isEqualTo(1000);
+    }
+}
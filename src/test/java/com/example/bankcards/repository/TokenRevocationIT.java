@@ -0,0 +1,57 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.TokenRevocation;
+import com.example.bankcards.security.TokenRevocationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Date;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class TokenRevocationIT {
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @AfterEach
+    void tearDown() {
+        tokenRevocationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void shouldShareRevocationsWithOtherInstancesAfterRefresh() {
+        Date issuedAt = new Date(System.currentTimeMillis() - 60_000);
+        TokenRevocationRegistry otherInstance = new TokenRevocationRegistry(tokenRevocationRepository, Duration.ofHours(1));
+
+        tokenRevocationRegistry.revokeUser(9001L);
+
+        assertThat(tokenRevocationRegistry.isRevoked(9001L, issuedAt)).isTrue();
+        assertThat(otherInstance.isRevoked(9001L, issuedAt)).isFalse();
+
+        otherInstance.refresh();
+
+        assertThat(otherInstance.isRevoked(9001L, issuedAt)).isTrue();
+        assertThat(otherInstance.isRevoked(9002L, issuedAt)).isFalse();
+    }
+
+    @Test
+    void shouldPurgeRevocationsOlderThanTokenLifetime() {
+        tokenRevocationRepository.save(new TokenRevocation(9003L, LocalDateTime.now().minusDays(2)));
+        tokenRevocationRepository.save(new TokenRevocation(9004L, LocalDateTime.now().withNano(0)));
+
+        tokenRevocationRegistry.purgeExpired();
+
+        assertThat(tokenRevocationRepository.findAll())
+                .extracting(TokenRevocation::getUserId)
+                .containsExactly(9004L);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.BulkCreateUsersRequest;
+import com.example.bankcards.dto.BulkCreateUsersResponse;
+import com.example.bankcards.dto.CreateUserRequest;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.service.UserProvisioningService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.user-provisioning.chunk-size=100",
+        "app.security.password.bcrypt-strength=4"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class UserProvisioningIT {
+
+    private static final int USERS = 300;
+
+    @Autowired
+    private UserProvisioningService userProvisioningService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User existing;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        existing = userRepository.save(User.builder()
+                .firstName("Existing")
+                .lastName("User")
+                .email("bulk-5@gmail.com")
+                .password("password")
+                .build());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        jdbcTemplate.update("DELETE FROM users_roles WHERE user_id IN (SELECT id FROM users WHERE email LIKE 'bulk-%')");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE 'bulk-%'");
+    }
+
+    @Test
+    void shouldInsertUsersAndRolesInBatchesPerChunk() {
+        List<CreateUserRequest> users = new ArrayList<>();
+        IntStream.range(0, USERS).forEach(i ->
+                users.add(new CreateUserRequest("Bulk", "User", "bulk-" + i + "@gmail.com", "password123")));
+        BulkCreateUsersRequest request = new BulkCreateUsersRequest();
+        request.setUsers(users);
+
+        BulkCreateUsersResponse response = userProvisioningService.createUsers(request);
+
+        assertThat(response.created()).isEqualTo(USERS - 1);
+        assertThat(response.results().get(5).message()).isEqualTo("Пользователь с такой почтой уже существует");
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM users_roles ur
+                JOIN roles r ON r.id = ur.role_id
+                JOIN users u ON u.id = ur.user_id
+                WHERE r.name = 'ROLE_USER' AND u.email LIKE 'bulk-%' AND u.id <> ?""", Long.class, existing.getId()))
+                .isEqualTo(USERS - 1);
+        assertThat(userRepository.findUserByEmail("bulk-0@gmail.com"))
+                .hasValueSatisfying(user -> assertThat(user.getPassword()).startsWith("$2a$04$"));
+
+        // 3 email checks, 1 role lookup, a few id blocks and one batch per table and chunk,
+        // rather than two inserts per user
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(30);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.UserDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class UserSummaryQueryIT {
+
+    private static final int USERS = 10;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<User> users = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        IntStream.range(0, USERS).forEach(i -> users.add(userRepository.save(User.builder()
+                .firstName("Summary" + i)
+                .lastName("User")
+                .email("summary-" + i + "@gmail.com")
+                .password("password")
+                .build())));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        cardRepository.deleteAllInBatch();
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void shouldKeepUserPageCostFlatAsCardsPerUserGrow() {
+        long statementsWithOneCard = pageCost(1);
+        long statementsWithFortyCards = pageCost(40);
+
+        assertThat(statementsWithOneCard).isEqualTo(2);
+        assertThat(statementsWithFortyCards).isEqualTo(statementsWithOneCard);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private long pageCost(int cardsPerUser) {
+        cardRepository.deleteAllInBatch();
+        users.forEach(user -> cardRepository.saveAll(IntStream.range(0, cardsPerUser)
+                .mapToObj(i -> Card.builder()
+                        .cardNumber("encrypted-" + i)
+                        .lastFourNumbers(String.format("%04d", i))
+                        .expiryDate(LocalDate.now().plusYears(3))
+                        .balance(BigDecimal.ONE)
+                        .owner(user)
+                        .status(CardStatus.ACTIVE)
+                        .build())
+                .toList()));
+
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        Page<UserDto> page = userRepository.findSummaries(PageRequest.of(0, USERS, Sort.by(Sort.Direction.DESC, "id")))
+                .map(UserDto::from);
+
+        assertThat(page.getContent()).allSatisfy(user -> {
+            assertThat(user.getCardsCount()).isEqualTo(cardsPerUser);
+            assertThat(user.getTotalBalance()).isEqualByComparingTo(BigDecimal.valueOf(cardsPerUser));
+        });
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.BlockRequestDecisionRequest;
+import com.example.bankcards.dto.BlockRequestDecisionResponse;
 import com.example.bankcards.dto.CardDto;
 import com.example.bankcards.dto.CreateCardRequest;
+import com.example.bankcards.dto.KeysetSlice;
+import com.example.bankcards.entity.BlockRequestStatus;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.User;
@@ -9,19 +13,25 @@ import com.example.bankcards.exception.CardNotFoundException;
 import com.example.bankcards.exception.CardOperationException;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.repository.BlockCardRequestRepository;
+import com.example.bankcards.repository.CardPageRow;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.TransactionRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardEncryptor;
+import com.example.bankcards.util.CardNumberHasher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,6 +53,21 @@ class AdminCardManagementServiceTest {
     @Mock
     private BlockCardRequestRepository blockCardRequestRepository;
 
+    @Mock
+    private CardEncryptor cardEncryptor;
+
+    @Mock
+    private CardNumberHasher cardNumberHasher;
+
+    @Mock
+    private CardNumberIssuer cardNumberIssuer;
+
+    @Mock
+    private CardKeyRotationService cardKeyRotationService;
+
+    @Mock
+    private CardImportService cardImportService;
+
     @InjectMocks
     private AdminCardManagementService adminCardManagementService;
 
@@ -103,7 +128,7 @@ class AdminCardManagementServiceTest {
     @Test
     void shouldCreateCardSuccessfully() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(cardRepository.save(any(Card.class))).thenAnswer(invocation -> {
+        when(cardRepository.saveAndFlush(any(Card.class))).thenAnswer(invocation -> {
             Card card = invocation.getArgument(0);
             card.setId(1L);
             return card;
@@ -116,7 +141,108 @@ class AdminCardManagementServiceTest {
         assertEquals(BigDecimal.valueOf(1000), result.balance());
 
         verify(userRepository).findById(1L);
-        verify(cardRepository).save(any(Card.class));
+        verify(cardRepository).saveAndFlush(any(Card.class));
+    }
+
+    @Test
+    void shouldIssueCardNumberWhenNoneSupplied() {
+        createCardRequest.setCardNumber(null);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(cardNumberIssuer.issue()).thenReturn("4276120000123453");
+        when(cardNumberHasher.hash("4276120000123453")).thenReturn("hash");
+        when(cardEncryptor.encrypt("4276120000123453")).thenReturn("v1:encrypted");
+        when(cardRepository.saveAndFlush(any(Card.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        adminCardManagementService.createCard(createCardRequest);
+
+        verify(cardRepository).saveAndFlush(argThat(card -> card.getCardNumber().equals("v1:encrypted")
+                && card.getCardNumberHash().equals("hash")
+                && card.getLastFourNumbers().equals("3453")));
+        verify(cardRepository, never()).existsByCardNumberHash(anyString());
+    }
+
+    @Test
+    void shouldRejectDuplicateCardNumberWhenCreate() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(cardNumberHasher.hash("1234567890123456")).thenReturn("hash");
+        when(cardRepository.existsByCardNumberHash("hash")).thenReturn(true);
+
+        CardOperationException exception = assertThrows(CardOperationException.class,
+                () -> adminCardManagementService.createCard(createCardRequest));
+
+        assertEquals("Карта с таким номером уже существует", exception.getMessage());
+        verify(cardRepository, never()).saveAndFlush(any(Card.class));
+        verifyNoInteractions(cardEncryptor);
+    }
+
+    @Test
+    void shouldRejectMalformedCardNumberWhenCreate() {
+        createCardRequest.setCardNumber("1234-5678");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        CardOperationException exception = assertThrows(CardOperationException.class,
+                () -> adminCardManagementService.createCard(createCardRequest));
+
+        assertEquals("Номер карты должен состоять из 16 цифр", exception.getMessage());
+        verifyNoInteractions(cardNumberHasher, cardEncryptor);
+    }
+
+    @Test
+    void shouldRejectSuppliedNumberInsideIssuingBin() {
+        createCardRequest.setCardNumber("4276123456783456");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(cardNumberIssuer.isInIssuingBin("4276123456783456")).thenReturn(true);
+
+        CardOperationException exception = assertThrows(CardOperationException.class,
+                () -> adminCardManagementService.createCard(createCardRequest));
+
+        assertEquals("Номера из BIN банка выпускаются автоматически, не указывайте cardNumber", exception.getMessage());
+        verifyNoInteractions(cardNumberHasher, cardEncryptor);
+        verify(cardRepository, never()).saveAndFlush(any(Card.class));
+    }
+
+    @Test
+    void shouldReportConcurrentDuplicateAsCardOperationException() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(cardNumberHasher.hash("1234567890123456")).thenReturn("hash");
+        when(cardRepository.saveAndFlush(any(Card.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_cards_card_number_hash"));
+
+        CardOperationException exception = assertThrows(CardOperationException.class,
+                () -> adminCardManagementService.createCard(createCardRequest));
+
+        assertEquals("Карта с таким номером уже существует", exception.getMessage());
+    }
+
+    @Test
+    void shouldFindCardByNumberThroughBlindIndex() {
+        CardPageRow row = new CardPageRow(1L, "3456", LocalDate.now().plusYears(3), BigDecimal.TEN, CardStatus.ACTIVE,
+                1L, "Arapov", "Artem", "arapov@gmail.com");
+        when(cardNumberHasher.hash("1234567890123456")).thenReturn("hash");
+        when(cardRepository.findPageRowByCardNumberHash("hash")).thenReturn(Optional.of(row));
+
+        CardDto result = adminCardManagementService.findCardByNumber("1234567890123456");
+
+        assertEquals(1L, result.id());
+    }
+
+    @Test
+    void shouldNormalizeNumberBeforeLookupAndRejectMalformed() {
+        when(cardNumberHasher.hash("1234567890123456")).thenReturn("hash");
+        when(cardRepository.findPageRowByCardNumberHash("hash")).thenReturn(Optional.empty());
+
+        assertThrows(CardNotFoundException.class, () -> adminCardManagementService.findCardByNumber("1234 5678 9012 3456"));
+        assertThrows(CardOperationException.class, () -> adminCardManagementService.findCardByNumber("1234 5678"));
+        assertThrows(CardOperationException.class, () -> adminCardManagementService.findCardByNumber(null));
+        verify(cardNumberHasher).hash("1234567890123456");
+    }
+
+    @Test
+    void shouldThrowCardNotFoundWhenNumberIsUnknown() {
+        when(cardNumberHasher.hash("0000000000000000")).thenReturn("unknown");
+        when(cardRepository.findPageRowByCardNumberHash("unknown")).thenReturn(Optional.empty());
+
+        assertThrows(CardNotFoundException.class, () -> adminCardManagementService.findCardByNumber("0000000000000000"));
     }
 
     @Test
@@ -145,7 +271,7 @@ class AdminCardManagementServiceTest {
         requestWithoutBalance.setInitialBalance(null);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(cardRepository.save(any(Card.class))).thenAnswer(invocation -> {
+        when(cardRepository.saveAndFlush(any(Card.class))).thenAnswer(invocation -> {
             Card card = invocation.getArgument(0);
             card.setId(1L);
             return card;
@@ -155,19 +281,40 @@ class AdminCardManagementServiceTest {
 
         assertNotNull(result);
         verify(userRepository).findById(1L);
-        verify(cardRepository).save(any(Card.class));
+        verify(cardRepository).saveAndFlush(any(Card.class));
     }
 
     @Test
     void shouldReturnEmptyPageWhenNoCards() {
-        Page<Card> emptyPage = Page.empty();
-        when(cardRepository.findAll(any(Pageable.class))).thenReturn(emptyPage);
+        Page<CardPageRow> emptyPage = Page.empty();
+        when(cardRepository.findPage(any(Pageable.class))).thenReturn(emptyPage);
 
         Page<CardDto> result = adminCardManagementService.getAllCards(Pageable.ofSize(10));
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(cardRepository).findAll(any(Pageable.class));
+        verify(cardRepository).findPage(any(Pageable.class));
+    }
+
+    @Test
+    void shouldGetCardsAfterReturnNextCursorWhenMoreRowsExist() {
+        List<CardPageRow> rows = List.of(pageRow(11L), pageRow(12L), pageRow(13L));
+        when(cardRepository.findPageAfter(eq(10L), any(Pageable.class))).thenReturn(rows);
+
+        KeysetSlice<CardDto> result = adminCardManagementService.getCardsAfter(10L, 2);
+
+        assertEquals(2, result.items().size());
+        assertEquals(12L, result.nextAfter());
+        verify(cardRepository).findPageAfter(10L, PageRequest.ofSize(3));
+    }
+
+    @Test
+    void shouldThrowWhenCardsAfterLimitOutOfRange() {
+        CardOperationException exception = assertThrows(CardOperationException.class,
+                () -> adminCardManagementService.getCardsAfter(0L, 0));
+
+        assertEquals("Размер страницы должен быть от 1 до 500", exception.getMessage());
+        verify(cardRepository, never()).findPageAfter(anyLong(), any(Pageable.class));
     }
 
     @Test
@@ -182,6 +329,7 @@ class AdminCardManagementServiceTest {
         verify(cardRepository).findById(52L);
         verify(transactionRepository, never()).setFromCardToNull(anyLong());
         verify(transactionRepository, never()).setToCardToNull(anyLong());
+        verify(blockCardRequestRepository, never()).rejectPendingForCard(anyLong());
         verify(blockCardRequestRepository, never()).setCardToNull(anyLong());
         verify(cardRepository, never()).delete(any(Card.class));
     }
@@ -189,13 +337,12 @@ class AdminCardManagementServiceTest {
     @Test
     void shouldActivateCardSuccessfully() {
         when(cardRepository.findById(1L)).thenReturn(Optional.of(activeCard));
-        when(cardRepository.save(any(Card.class))).thenReturn(activeCard);
 
         adminCardManagementService.activateCard(1L);
 
-        assertEquals(CardStatus.ACTIVE, activeCard.getStatus());
         verify(cardRepository).findById(1L);
-        verify(cardRepository).save(activeCard);
+        verify(cardRepository).updateStatus(1L, CardStatus.ACTIVE);
+        verify(cardRepository, never()).save(any(Card.class));
     }
 
     @Test
@@ -227,13 +374,13 @@ class AdminCardManagementServiceTest {
     @Test
     void shouldBlockCardSuccessfully() {
         when(cardRepository.findById(1L)).thenReturn(Optional.of(activeCard));
-        when(cardRepository.save(any(Card.class))).thenReturn(activeCard);
+        when(cardRepository.blockWithZeroBalance(List.of(1L))).thenReturn(1);
 
         adminCardManagementService.blockCard(1L);
 
-        assertEquals(CardStatus.BLOCKED, activeCard.getStatus());
         verify(cardRepository).findById(1L);
-        verify(cardRepository).save(activeCard);
+        verify(cardRepository).blockWithZeroBalance(List.of(1L));
+        verify(cardRepository, never()).save(any(Card.class));
     }
 
     @Test
@@ -269,14 +416,60 @@ class AdminCardManagementServiceTest {
     }
 
     @Test
-    void shouldUpdateStatusWhenAlreadyBlocked() {
+    void shouldLeaveAlreadyBlockedCardAsIs() {
         when(cardRepository.findById(3L)).thenReturn(Optional.of(blockedCard));
-        when(cardRepository.save(any(Card.class))).thenReturn(blockedCard);
 
         adminCardManagementService.blockCard(3L);
 
-        assertEquals(CardStatus.BLOCKED, blockedCard.getStatus());
         verify(cardRepository).findById(3L);
-        verify(cardRepository).save(blockedCard);
+        verify(cardRepository, never()).blockWithZeroBalance(anyCollection());
+        verify(cardRepository, never()).save(any(Card.class));
+    }
+
+    @Test
+    void shouldApproveBlockRequestsWithSetBasedUpdates() {
+        BlockRequestDecisionRequest request = decision(BlockRequestStatus.APPROVED, 10L, 11L, 12L);
+        when(blockCardRequestRepository.findPendingCardIds(request.getRequestIds())).thenReturn(List.of(1L, 2L));
+        when(cardRepository.blockWithZeroBalance(List.of(1L, 2L))).thenReturn(1);
+        when(blockCardRequestRepository.approvePendingForBlockedCards(List.of(1L, 2L))).thenReturn(2);
+
+        BlockRequestDecisionResponse response = adminCardManagementService.decideBlockRequests(request);
+
+        assertEquals(new BlockRequestDecisionResponse(BlockRequestStatus.APPROVED, 2, 1), response);
+        verify(cardRepository, never()).findById(anyLong());
+        verify(blockCardRequestRepository, never()).rejectPending(anyCollection(), anyCollection());
+    }
+
+    @Test
+    void shouldRejectBlockRequestsWithoutTouchingCards() {
+        BlockRequestDecisionRequest request = decision(BlockRequestStatus.REJECTED, 10L);
+        when(blockCardRequestRepository.findPendingCardIds(List.of(10L))).thenReturn(List.of(1L));
+        when(blockCardRequestRepository.rejectPending(List.of(10L), List.of(1L))).thenReturn(3);
+
+        BlockRequestDecisionResponse response = adminCardManagementService.decideBlockRequests(request);
+
+        assertEquals(new BlockRequestDecisionResponse(BlockRequestStatus.REJECTED, 3, 0), response);
+        verify(cardRepository, never()).blockWithZeroBalance(anyCollection());
+    }
+
+    @Test
+    void shouldRefusePendingAsDecision() {
+        CardOperationException exception = assertThrows(CardOperationException.class,
+                () -> adminCardManagementService.decideBlockRequests(decision(BlockRequestStatus.PENDING, 10L)));
+
+        assertEquals("Решение должно быть APPROVED или REJECTED", exception.getMessage());
+        verifyNoInteractions(blockCardRequestRepository);
+    }
+
+    private BlockRequestDecisionRequest decision(BlockRequestStatus status, Long... requestIds) {
+        BlockRequestDecisionRequest request = new BlockRequestDecisionRequest();
+        request.setRequestIds(List.of(requestIds));
+        request.setDecision(status);
+        return request;
+    }
+
+    private CardPageRow pageRow(Long id) {
+        return new CardPageRow(id, "1111", LocalDate.now().plusYears(3), BigDecimal.TEN, CardStatus.ACTIVE,
+                1L, "Arapov", "Artem", "arapov@gmail.com");
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.KeysetSlice;
 import com.example.bankcards.dto.UpdateUserRequest;
 import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.entity.Role;
@@ -7,6 +8,8 @@ import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.exception.UserOperationException;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.repository.UserSummaryRow;
+import com.example.bankcards.security.TokenRevocationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,7 +18,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -29,10 +34,14 @@ class AdminUserManagementServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
     @InjectMocks
     private AdminUserManagementService adminUserManagementService;
 
     private User testUser;
+    private UserSummaryRow testUserSummary;
     private Role userRole;
     private UpdateUserRequest updateUserRequest;
 
@@ -52,6 +61,8 @@ class AdminUserManagementServiceTest {
                 .roles(Set.of(userRole))
                 .build();
 
+        testUserSummary = new UserSummaryRow(1L, "Arapov", "Artem", "arapov@gmail.com", 2L, BigDecimal.valueOf(1500));
+
         updateUserRequest = new UpdateUserRequest(
                 "Kazakov",
                 "Timur",
@@ -61,33 +72,65 @@ class AdminUserManagementServiceTest {
 
     @Test
     void shouldGetAllReturnPageOfUsers() {
-        Page<User> userPage = new PageImpl<>(List.of(testUser));
-        when(userRepository.findAll(any(Pageable.class))).thenReturn(userPage);
+        Page<UserSummaryRow> userPage = new PageImpl<>(List.of(testUserSummary));
+        when(userRepository.findSummaries(any(Pageable.class))).thenReturn(userPage);
 
         Page<UserDto> result = adminUserManagementService.getAllUsers(Pageable.ofSize(10));
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
         assertEquals("Arapov", result.getContent().get(0).getFirstName());
+        assertEquals(2, result.getContent().get(0).getCardsCount());
 
-        verify(userRepository).findAll(any(Pageable.class));
+        verify(userRepository).findSummaries(any(Pageable.class));
     }
 
     @Test
     void shouldGetAllReturnEmptyPage() {
-        Page<User> emptyPage = Page.empty();
-        when(userRepository.findAll(any(Pageable.class))).thenReturn(emptyPage);
+        Page<UserSummaryRow> emptyPage = Page.empty();
+        when(userRepository.findSummaries(any(Pageable.class))).thenReturn(emptyPage);
 
         Page<UserDto> result = adminUserManagementService.getAllUsers(Pageable.ofSize(10));
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(userRepository).findAll(any(Pageable.class));
+        verify(userRepository).findSummaries(any(Pageable.class));
+    }
+
+    @Test
+    void shouldGetUsersAfterReturnNextCursorWhenMoreRowsExist() {
+        UserSummaryRow second = new UserSummaryRow(2L, "Kazakov", "Timur", "kazakov@gmail.com", 0L, BigDecimal.ZERO);
+        when(userRepository.findSummariesAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(testUserSummary, second));
+
+        KeysetSlice<UserDto> result = adminUserManagementService.getUsersAfter(0L, 1);
+
+        assertEquals(1, result.items().size());
+        assertEquals(1L, result.nextAfter());
+        verify(userRepository).findSummariesAfter(0L, PageRequest.ofSize(2));
+    }
+
+    @Test
+    void shouldGetUsersAfterReturnNoCursorOnLastSlice() {
+        when(userRepository.findSummariesAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(testUserSummary));
+
+        KeysetSlice<UserDto> result = adminUserManagementService.getUsersAfter(0L, 10);
+
+        assertEquals(1, result.items().size());
+        assertNull(result.nextAfter());
+    }
+
+    @Test
+    void shouldThrowWhenUsersAfterLimitOutOfRange() {
+        UserOperationException exception = assertThrows(UserOperationException.class,
+                () -> adminUserManagementService.getUsersAfter(0L, 501));
+
+        assertEquals("Размер страницы должен быть от 1 до 500", exception.getMessage());
+        verify(userRepository, never()).findSummariesAfter(anyLong(), any(Pageable.class));
     }
 
     @Test
     void shouldGetByIdReturnUserDto() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.findSummaryById(1L)).thenReturn(Optional.of(testUserSummary));
 
         UserDto result = adminUserManagementService.getUserById(1L);
 
@@ -96,18 +139,18 @@ class AdminUserManagementServiceTest {
         assertEquals("Artem", result.getLastName());
         assertEquals("arapov@gmail.com", result.getEmail());
 
-        verify(userRepository).findById(1L);
+        verify(userRepository).findSummaryById(1L);
     }
 
     @Test
     void shouldThrowUserNotFoundException() {
-        when(userRepository.findById(52L)).thenReturn(Optional.empty());
+        when(userRepository.findSummaryById(52L)).thenReturn(Optional.empty());
 
         UserNotFoundException exception = assertThrows(UserNotFoundException.class,
                 () -> adminUserManagementService.getUserById(52L));
 
         assertEquals("User not found: 52", exception.getMessage());
-        verify(userRepository).findById(52L);
+        verify(userRepository).findSummaryById(52L);
     }
 
     @Test
@@ -140,6 +183,19 @@ class AdminUserManagementServiceTest {
         verify(userRepository).findById(1L);
         verify(userRepository, never()).existsByEmail(anyString());
         verify(userRepository).save(any(User.class));
+        verifyNoInteractions(tokenRevocationRegistry);
+    }
+
+    @Test
+    void shouldRevokeTokensWhenEmailChanges() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.existsByEmail("kazakov@gmail.com")).thenReturn(false);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UserDto result = adminUserManagementService.updateUser(1L, updateUserRequest);
+
+        assertEquals("kazakov@gmail.com", result.getEmail());
+        verify(tokenRevocationRegistry).revokeUser(1L);
     }
 
     @Test
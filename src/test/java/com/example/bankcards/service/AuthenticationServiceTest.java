@@ -8,6 +8,8 @@ import com.example.bankcards.exception.UserOperationException;
 import com.example.bankcards.repository.RoleRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.util.JwtTokenUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,7 +17,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import java.util.Optional;
 import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,11 +33,14 @@ class AuthenticationServiceTest {
     private RoleRepository roleRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Mock
     private JwtTokenUtil jwtTokenUtil;
 
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
     @InjectMocks
     private AuthenticationService authenticationService;
 
@@ -84,7 +88,7 @@ class AuthenticationServiceTest {
         assertEquals("ROLE_USER not found", exception.getMessage());
         verify(userRepository).existsByEmail("unguryan@gmail.com");
         verify(roleRepository).findRoleByName("ROLE_USER");
-        verifyNoInteractions(passwordEncoder, jwtTokenUtil);
+        verifyNoInteractions(passwordHashingService, jwtTokenUtil);
         verify(userRepository, never()).save(any(User.class));
     }
 
@@ -92,19 +96,48 @@ class AuthenticationServiceTest {
     void shouldReturnJwtResponse() {
         when(userRepository.findUserByEmail("unguryan@gmail.com"))
                 .thenReturn(Optional.of(testUser));
-        when(passwordEncoder.matches("password123", "encodedPassword")).thenReturn(true);
+        when(passwordHashingService.matches("password123", "encodedPassword")).thenReturn(true);
         when(jwtTokenUtil.generateToken(testUser)).thenReturn("jwt-token");
+        when(refreshTokenService.issue(testUser)).thenReturn("refresh-token");
 
         JwtResponse response = authenticationService.login(jwtRequest);
 
         assertNotNull(response);
         assertEquals("jwt-token", response.token());
+        assertEquals("refresh-token", response.refreshToken());
 
         verify(userRepository).findUserByEmail("unguryan@gmail.com");
-        verify(passwordEncoder).matches("password123", "encodedPassword");
+        verify(passwordHashingService).matches("password123", "encodedPassword");
         verify(jwtTokenUtil).generateToken(testUser);
     }
 
+    @Test
+    void shouldRehashPasswordMadeWithOtherCost() {
+        when(userRepository.findUserByEmail("unguryan@gmail.com"))
+                .thenReturn(Optional.of(testUser));
+        when(passwordHashingService.matches("password123", "encodedPassword")).thenReturn(true);
+        when(passwordHashingService.needsRehash("encodedPassword")).thenReturn(true);
+        when(passwordHashingService.encode("password123")).thenReturn("rehashedPassword");
+
+        authenticationService.login(jwtRequest);
+
+        assertEquals("rehashedPassword", testUser.getPassword());
+        verify(userRepository).save(testUser);
+    }
+
+    @Test
+    void shouldRefreshWithoutCheckingPassword() {
+        when(refreshTokenService.rotate("refresh-token"))
+                .thenReturn(new RefreshTokenService.Rotation(testUser, "next-refresh-token"));
+        when(jwtTokenUtil.generateToken(testUser)).thenReturn("jwt-token");
+
+        JwtResponse response = authenticationService.refresh(new RefreshTokenRequest("refresh-token"));
+
+        assertEquals("jwt-token", response.token());
+        assertEquals("next-refresh-token", response.refreshToken());
+        verifyNoInteractions(passwordHashingService, userRepository);
+    }
+
     @Test
     void shouldThrowUserOperationException() {
         when(userRepository.findUserByEmail("unguryan@gmail.com"))
@@ -115,14 +148,14 @@ class AuthenticationServiceTest {
 
         assertEquals("User with emailunguryan@gmail.comalready exists", exception.getMessage());
         verify(userRepository).findUserByEmail("unguryan@gmail.com");
-        verifyNoInteractions(passwordEncoder, jwtTokenUtil);
+        verifyNoInteractions(passwordHashingService, jwtTokenUtil);
     }
 
     @Test
     void shouldThrowBadCredentialsException() {
         when(userRepository.findUserByEmail("unguryan@gmail.com"))
                 .thenReturn(Optional.of(testUser));
-        when(passwordEncoder.matches("wrongPassword", "encodedPassword")).thenReturn(false);
+        when(passwordHashingService.matches("wrongPassword", "encodedPassword")).thenReturn(false);
 
         JwtRequest invalidRequest = new JwtRequest("unguryan@gmail.com", "wrongPassword");
 
@@ -131,7 +164,7 @@ class AuthenticationServiceTest {
 
         assertEquals("Invalid email or password", exception.getMessage());
         verify(userRepository).findUserByEmail("unguryan@gmail.com");
-        verify(passwordEncoder).matches("wrongPassword", "encodedPassword");
+        verify(passwordHashingService).matches("wrongPassword", "encodedPassword");
         verifyNoInteractions(jwtTokenUtil);
     }
 
@@ -139,8 +172,8 @@ class AuthenticationServiceTest {
     void shouldReturnValidResponse() {
         String token = "valid-jwt-token";
 
-        when(jwtTokenUtil.validateToken(token)).thenReturn(true);
-        when(jwtTokenUtil.getUsername(token)).thenReturn("unguryan@gmail.com");
+        when(jwtTokenUtil.getAllClaimsFromToken(token))
+                .thenReturn(Jwts.claims().subject("unguryan@gmail.com").build());
         when(userRepository.findUserByEmail("unguryan@gmail.com"))
                 .thenReturn(Optional.of(testUser));
 
@@ -150,8 +183,7 @@ class AuthenticationServiceTest {
         assertEquals("Token is valid", response.message());
         assertNotNull(response.user());
 
-        verify(jwtTokenUtil).validateToken(token);
-        verify(jwtTokenUtil).getUsername(token);
+        verify(jwtTokenUtil).getAllClaimsFromToken(token);
         verify(userRepository).findUserByEmail("unguryan@gmail.com");
     }
 
@@ -159,7 +191,7 @@ class AuthenticationServiceTest {
     void shouldReturnInvalidResponse() {
         String token = "invalid-jwt-token";
 
-        when(jwtTokenUtil.validateToken(token)).thenReturn(false);
+        when(jwtTokenUtil.getAllClaimsFromToken(token)).thenThrow(new MalformedJwtException("Invalid compact JWT"));
 
         ValidateTokenResponse response = authenticationService.validateToken(token);
 
@@ -167,8 +199,6 @@ class AuthenticationServiceTest {
         assertEquals("Token is invalid", response.message());
         assertNull(response.user());
 
-        verify(jwtTokenUtil).validateToken(token);
-        verify(jwtTokenUtil, never()).getUsername(anyString());
         verifyNoInteractions(userRepository);
     }
 
@@ -176,7 +206,7 @@ class AuthenticationServiceTest {
     void shouldReturnInvalidResponseWhenTokenInvalid() {
         String token = "invalid-jwt-token";
 
-        when(jwtTokenUtil.validateToken(token)).thenThrow(new RuntimeException("Token expired"));
+        when(jwtTokenUtil.getAllClaimsFromToken(token)).thenThrow(new RuntimeException("Token expired"));
 
         ValidateTokenResponse response = authenticationService.validateToken(token);
 
@@ -184,15 +214,15 @@ class AuthenticationServiceTest {
         assertTrue(response.message().contains("Token validation failed"));
         assertNull(response.user());
 
-        verify(jwtTokenUtil).validateToken(token);
+        verify(jwtTokenUtil).getAllClaimsFromToken(token);
     }
 
     @Test
     void shouldReturnInvalidResponseWhenUserNotFound() {
         String token = "valid-jwt-token";
 
-        when(jwtTokenUtil.validateToken(token)).thenReturn(true);
-        when(jwtTokenUtil.getUsername(token)).thenReturn("nonexistent@example.com");
+        when(jwtTokenUtil.getAllClaimsFromToken(token))
+                .thenReturn(Jwts.claims().subject("nonexistent@example.com").build());
         when(userRepository.findUserByEmail("nonexistent@example.com"))
                 .thenReturn(Optional.empty());
 
@@ -202,8 +232,7 @@ class AuthenticationServiceTest {
         assertTrue(response.message().contains("Token validation failed"));
         assertNull(response.user());
 
-        verify(jwtTokenUtil).validateToken(token);
-        verify(jwtTokenUtil).getUsername(token);
+        verify(jwtTokenUtil).getAllClaimsFromToken(token);
         verify(userRepository).findUserByEmail("nonexistent@example.com");
     }
 }
\ No newline at end of file
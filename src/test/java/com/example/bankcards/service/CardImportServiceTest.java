@@ -0,0 +1,183 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardImportFormat;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardImportError;
+import com.example.bankcards.entity.CardImportJob;
+import com.example.bankcards.entity.CardImportStatus;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.repository.CardImportErrorRepository;
+import com.example.bankcards.repository.CardImportJdbcRepository;
+import com.example.bankcards.repository.CardImportJobRepository;
+import com.example.bankcards.repository.CardNumberJdbcRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardEncryptor;
+import com.example.bankcards.util.CardNumberHasher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardImportServiceTest {
+
+    private static final Map<String, Integer> CSV_COLUMNS = Map.of("ownerid", 0, "expirydate", 1, "initialbalance", 2, "cardnumber", 3);
+
+    @Mock
+    private CardImportJobRepository jobRepository;
+
+    @Mock
+    private CardImportErrorRepository errorRepository;
+
+    @Mock
+    private CardImportJdbcRepository importJdbcRepository;
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CardNumberJdbcRepository cardNumberJdbcRepository;
+
+    @Mock
+    private CardNumberIssuer cardNumberIssuer;
+
+    @Mock
+    private CardEncryptor cardEncryptor;
+
+    @Mock
+    private CardNumberHasher cardNumberHasher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private CardImportService cardImportService;
+    private CardImportJob job;
+
+    @BeforeEach
+    void setUp() {
+        cardImportService = new CardImportService(jobRepository, errorRepository, importJdbcRepository, cardRepository,
+                userRepository, cardNumberJdbcRepository, cardNumberIssuer, cardEncryptor, cardNumberHasher,
+                new ObjectMapper().findAndRegisterModules(),
+                transactionTemplate, 100, 1, 2, DataSize.ofMegabytes(1), "test-instance");
+        cardImportService.start();
+        job = CardImportJob.builder()
+                .id(7L)
+                .format(CardImportFormat.CSV)
+                .status(CardImportStatus.RUNNING)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        cardImportService.stop();
+    }
+
+    @Test
+    void shouldRejectUploadOverMaxSize() {
+        InputStream body = new ByteArrayInputStream(new byte[(int) DataSize.ofMegabytes(1).toBytes() + 1]);
+
+        CardOperationException exception = assertThrows(CardOperationException.class,
+                () -> cardImportService.submit(body, CardImportFormat.CSV));
+
+        assertEquals("Файл импорта больше 1 МБ", exception.getMessage());
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldFailJobsInterruptedOnThisInstance() {
+        cardImportService.failInterrupted();
+
+        verify(jobRepository).failInterrupted(eq("test-instance"), anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void shouldParseCsvAndJsonRows() {
+        CardImportService.ImportRow csv = cardImportService.parse(2, "1,2030-12-31,100.50,", CSV_COLUMNS);
+        CardImportService.ImportRow json = cardImportService.parse(1,
+                "{\"ownerId\":1,\"expiryDate\":\"2030-12-31\",\"cardNumber\":\"4000001234563456\"}", null);
+
+        assertNull(csv.error());
+        assertEquals(1L, csv.request().getOwnerId());
+        assertNull(csv.request().getCardNumber());
+        assertNull(json.error());
+        assertEquals("4000001234563456", json.request().getCardNumber());
+    }
+
+    @Test
+    void shouldReportMalformedRows() {
+        assertEquals("Некорректное значение в колонке expiryDate",
+                cardImportService.parse(2, "1,31.12.2030,,", CSV_COLUMNS).error());
+        assertEquals("Ожидается колонок: 4, получено: 2", cardImportService.parse(3, "1,2030-12-31", CSV_COLUMNS).error());
+        assertEquals("Не указан ownerId", cardImportService.parse(4, ",2030-12-31,,", CSV_COLUMNS).error());
+        assertEquals("Некорректная строка JSON", cardImportService.parse(5, "{not json", null).error());
+    }
+
+    @Test
+    void shouldRejectSuppliedNumberInsideIssuingBin() {
+        when(cardNumberIssuer.isInIssuingBin("4276123456783456")).thenReturn(true);
+
+        assertEquals("Номера из BIN банка выпускаются автоматически, не указывайте cardNumber",
+                cardImportService.parse(2, "1,2030-12-31,,4276123456783456", CSV_COLUMNS).error());
+    }
+
+    @Test
+    void shouldImportChunkAndRecordRowErrors() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(userRepository.findExistingIds(Set.of(1L, 52L))).thenReturn(List.of(1L));
+        when(userRepository.getReferenceById(1L)).thenReturn(User.builder().id(1L).build());
+        when(cardNumberIssuer.issue(1)).thenReturn(List.of("4276120000000018"));
+        when(cardEncryptor.encrypt(anyString())).thenAnswer(invocation -> "v1:" + invocation.getArgument(0));
+        when(cardNumberHasher.hash(anyString())).thenAnswer(invocation -> "hash-" + invocation.getArgument(0));
+        when(cardNumberJdbcRepository.findExistingHashes(List.of("hash-4000001234563456", "hash-4000001234569999")))
+                .thenReturn(Set.of("hash-4000001234569999"));
+
+        cardImportService.importChunk(job, List.of(
+                cardImportService.parse(2, "1,2030-12-31,,", CSV_COLUMNS),
+                cardImportService.parse(3, "1,2030-12-31,,4000001234563456", CSV_COLUMNS),
+                cardImportService.parse(4, "52,2030-12-31,,4000001234561111", CSV_COLUMNS),
+                cardImportService.parse(5, "1,2030-12-31,,4000001234569999", CSV_COLUMNS),
+                cardImportService.parse(6, "oops,2030-12-31,,", CSV_COLUMNS)));
+
+        ArgumentCaptor<List<Card>> cards = ArgumentCaptor.captor();
+        verify(cardRepository).saveAll(cards.capture());
+        assertEquals(List.of("v1:4276120000000018", "v1:4000001234563456"),
+                cards.getValue().stream().map(Card::getCardNumber).toList());
+        assertEquals("0018", cards.getValue().get(0).getLastFourNumbers());
+
+        ArgumentCaptor<List<CardImportError>> errors = ArgumentCaptor.captor();
+        verify(importJdbcRepository).insertErrors(errors.capture());
+        assertEquals(List.of(6L, 4L, 5L), errors.getValue().stream().map(CardImportError::getLineNumber).toList());
+        assertEquals("Пользователь не найден: 52", errors.getValue().get(1).getMessage());
+        assertEquals("Карта с таким номером уже существует", errors.getValue().get(2).getMessage());
+
+        assertEquals(5, job.getRowsProcessed());
+        assertEquals(2, job.getRowsImported());
+        assertEquals(3, job.getRowsFailed());
+    }
+}
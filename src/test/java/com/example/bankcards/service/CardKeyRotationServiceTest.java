@@ -0,0 +1,187 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.CardKeyRotation;
+import com.example.bankcards.entity.CardKeyRotationStatus;
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.repository.CardKeyRotationRepository;
+import com.example.bankcards.repository.CardNumberJdbcRepository;
+import com.example.bankcards.repository.CardNumberRow;
+import com.example.bankcards.util.CardEncryptor;
+import com.example.bankcards.util.CardNumberHasher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardKeyRotationServiceTest {
+
+    @Mock
+    private CardKeyRotationRepository rotationRepository;
+
+    @Mock
+    private CardNumberJdbcRepository cardNumberJdbcRepository;
+
+    @Mock
+    private CardEncryptor cardEncryptor;
+
+    @Mock
+    private CardNumberHasher cardNumberHasher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private CardKeyRotationService cardKeyRotationService;
+    private CardKeyRotation rotation;
+
+    @BeforeEach
+    void setUp() {
+        cardKeyRotationService = new CardKeyRotationService(rotationRepository, cardNumberJdbcRepository,
+                cardEncryptor, cardNumberHasher, transactionTemplate, 3, 1000, Duration.ofMinutes(2));
+        rotation = CardKeyRotation.builder()
+                .id(1L)
+                .targetKeyVersion(2)
+                .status(CardKeyRotationStatus.RUNNING)
+                .maxCardId(100L)
+                .startedAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void inTransaction() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(rotationRepository.renewLease(eq(1L), anyString(), any(LocalDateTime.class))).thenReturn(1);
+    }
+
+    @Test
+    void shouldRewriteOnlyStaleRowsAndAdvanceCheckpoint() {
+        inTransaction();
+        CardNumberRow legacy = new CardNumberRow(5L, "legacy", "hash-1");
+        CardNumberRow current = new CardNumberRow(7L, "v2:current", "hash-3");
+        CardNumberRow old = new CardNumberRow(9L, "v1:old", "hash-2");
+        when(cardNumberJdbcRepository.findChunk(0L, 100L, 3)).thenReturn(List.of(legacy, current, old));
+        when(cardEncryptor.keyVersionOf("legacy")).thenReturn(CardEncryptor.LEGACY_KEY_VERSION);
+        when(cardEncryptor.keyVersionOf("v2:current")).thenReturn(2);
+        when(cardEncryptor.keyVersionOf("v1:old")).thenReturn(1);
+        when(cardEncryptor.decrypt("legacy")).thenReturn("4276123456781111");
+        when(cardEncryptor.decrypt("v1:old")).thenReturn("4276123456782222");
+        when(cardEncryptor.encrypt("4276123456781111", 2)).thenReturn("v2:a");
+        when(cardEncryptor.encrypt("4276123456782222", 2)).thenReturn("v2:b");
+        when(cardNumberJdbcRepository.replaceCardNumbers(List.of(legacy, old), List.of("v2:a", "v2:b"),
+                List.of("hash-1", "hash-2"))).thenReturn(2);
+
+        int scanned = cardKeyRotationService.rotateChunk(rotation);
+
+        assertEquals(3, scanned);
+        assertEquals(9L, rotation.getLastCardId());
+        assertEquals(3, rotation.getRowsScanned());
+        assertEquals(2, rotation.getRowsRotated());
+        assertEquals(0, rotation.getRowsFailed());
+        verify(cardEncryptor, never()).decrypt("v2:current");
+        verifyNoInteractions(cardNumberHasher);
+        verify(rotationRepository).save(rotation);
+    }
+
+    @Test
+    void shouldBackfillMissingHashesAndSkipDuplicateNumbers() {
+        inTransaction();
+        CardNumberRow unindexed = new CardNumberRow(4L, "v2:first", null);
+        CardNumberRow duplicate = new CardNumberRow(6L, "v2:second", null);
+        when(cardNumberJdbcRepository.findChunk(0L, 100L, 3)).thenReturn(List.of(unindexed, duplicate));
+        when(cardEncryptor.keyVersionOf(anyString())).thenReturn(2);
+        when(cardEncryptor.decrypt("v2:first")).thenReturn("4276123456781111");
+        when(cardEncryptor.decrypt("v2:second")).thenReturn("4276123456782222");
+        when(cardNumberHasher.hash("4276123456781111")).thenReturn("hash-1");
+        when(cardNumberHasher.hash("4276123456782222")).thenReturn("hash-taken");
+        when(cardNumberJdbcRepository.findExistingHashes(List.of("hash-1", "hash-taken"))).thenReturn(Set.of("hash-taken"));
+        when(cardNumberJdbcRepository.replaceCardNumbers(List.of(unindexed), List.of("v2:first"), List.of("hash-1")))
+                .thenReturn(1);
+
+        cardKeyRotationService.rotateChunk(rotation);
+
+        assertEquals(1, rotation.getRowsRotated());
+        assertEquals(1, rotation.getRowsFailed());
+        verify(cardEncryptor, never()).encrypt(anyString(), anyInt());
+    }
+
+    @Test
+    void shouldCountUndecryptableRowsAndKeepGoing() {
+        inTransaction();
+        CardNumberRow broken = new CardNumberRow(3L, "garbage", null);
+        when(cardNumberJdbcRepository.findChunk(0L, 100L, 3)).thenReturn(List.of(broken));
+        when(cardEncryptor.keyVersionOf("garbage")).thenReturn(CardEncryptor.LEGACY_KEY_VERSION);
+        when(cardEncryptor.decrypt("garbage")).thenThrow(new RuntimeException("Decrypt operation is failed"));
+
+        int scanned = cardKeyRotationService.rotateChunk(rotation);
+
+        assertEquals(1, scanned);
+        assertEquals(3L, rotation.getLastCardId());
+        assertEquals(1, rotation.getRowsFailed());
+        verify(cardNumberJdbcRepository, never()).replaceCardNumbers(anyList(), anyList(), anyList());
+    }
+
+    @Test
+    void shouldReportEmptyChunkWithoutTouchingCheckpoint() {
+        inTransaction();
+        rotation.setLastCardId(100L);
+        when(cardNumberJdbcRepository.findChunk(100L, 100L, 3)).thenReturn(List.of());
+
+        assertEquals(0, cardKeyRotationService.rotateChunk(rotation));
+        verify(rotationRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldStopWithoutTouchingCardsOnceLeaseIsLost() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(rotationRepository.renewLease(eq(1L), anyString(), any(LocalDateTime.class))).thenReturn(0);
+
+        assertEquals(-1, cardKeyRotationService.rotateChunk(rotation));
+        verifyNoInteractions(cardNumberJdbcRepository);
+        verify(rotationRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldPauseThroughTheTable() {
+        when(rotationRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.of(rotation));
+
+        cardKeyRotationService.pauseRotation();
+
+        verify(rotationRepository).pause(eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void shouldNotStartWhileAnotherInstanceHoldsTheLease() {
+        rotation.setLeaseOwner("other-instance");
+        rotation.setLeaseUntil(LocalDateTime.now().plusMinutes(1));
+        when(rotationRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.of(rotation));
+
+        assertThrows(CardOperationException.class, () -> cardKeyRotationService.startRotation());
+        verify(rotationRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldNotResumeRunClaimedElsewhere() {
+        when(cardEncryptor.getActiveKeyVersion()).thenReturn(2);
+        when(rotationRepository.findFirstByStatusOrderByIdDesc(CardKeyRotationStatus.RUNNING))
+                .thenReturn(Optional.of(rotation));
+        when(rotationRepository.claim(eq(1L), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(0);
+
+        cardKeyRotationService.resumeInterrupted();
+
+        verify(rotationRepository, never()).findById(anyLong());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.SequenceBlockJdbcRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Issuing throughput with the database mocked out, so it measures numbering only.
+ * Excluded from mvn test; run with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class CardNumberIssuerBenchmark {
+
+    private static final int COUNT = 200_000;
+
+    @Test
+    void issuingThroughput() {
+        SequenceBlockJdbcRepository sequenceBlockJdbcRepository = mock(SequenceBlockJdbcRepository.class);
+        AtomicLong sequence = new AtomicLong();
+        when(sequenceBlockJdbcRepository.reserve("pan_427612", 1000)).thenAnswer(invocation -> sequence.getAndAdd(1000));
+        CardNumberIssuer issuer = new CardNumberIssuer(sequenceBlockJdbcRepository,
+                mock(PlatformTransactionManager.class), "427612", 1000);
+        issuer.issue(COUNT);
+
+        long start = System.nanoTime();
+        Set<String> numbers = new HashSet<>(issuer.issue(COUNT));
+        long elapsedNanos = System.nanoTime() - start;
+
+        System.out.printf("issued %d numbers per second%n", (long) (COUNT / (elapsedNanos / 1_000_000_000.0)));
+        assertEquals(COUNT, numbers.size());
+    }
+}
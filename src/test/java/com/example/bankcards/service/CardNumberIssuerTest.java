@@ -0,0 +1,82 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.repository.SequenceBlockJdbcRepository;
+import com.example.bankcards.util.Luhn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardNumberIssuerTest {
+
+    @Mock
+    private SequenceBlockJdbcRepository sequenceBlockJdbcRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CardNumberIssuer issuer(String bin, int blockSize) {
+        AtomicLong sequence = new AtomicLong();
+        when(sequenceBlockJdbcRepository.reserve("pan_" + bin, blockSize))
+                .thenAnswer(invocation -> sequence.getAndAdd(blockSize));
+        return new CardNumberIssuer(sequenceBlockJdbcRepository, transactionManager, bin, blockSize);
+    }
+
+    @Test
+    void shouldIssueUniqueLuhnValidNumbersInsideBin() {
+        CardNumberIssuer issuer = issuer("427612", 100);
+
+        List<String> numbers = issuer.issue(1000);
+
+        assertEquals(1000, new HashSet<>(numbers).size());
+        for (String number : numbers) {
+            assertEquals(16, number.length());
+            assertTrue(number.startsWith("427612"));
+            assertTrue(Luhn.isValid(number), number);
+        }
+        verify(sequenceBlockJdbcRepository, times(10)).reserve("pan_427612", 100);
+    }
+
+    @Test
+    void shouldNotIssueConsecutiveNumbersForConsecutiveCards() {
+        List<String> numbers = issuer("427612", 100).issue(2);
+
+        long first = Long.parseLong(numbers.get(0).substring(6, 15));
+        long second = Long.parseLong(numbers.get(1).substring(6, 15));
+        assertNotEquals(1, Math.abs(second - first));
+    }
+
+    @Test
+    void shouldFailWhenBinRangeIsExhausted() {
+        when(sequenceBlockJdbcRepository.reserve("pan_42761234", 10)).thenReturn(9_999_995L);
+        CardNumberIssuer issuer = new CardNumberIssuer(sequenceBlockJdbcRepository, transactionManager, "42761234", 10);
+
+        CardOperationException exception = assertThrows(CardOperationException.class, issuer::issue);
+
+        assertEquals("Диапазон номеров карт для BIN 42761234 исчерпан", exception.getMessage());
+    }
+
+    @Test
+    void shouldRejectMalformedBin() {
+        assertThrows(IllegalStateException.class,
+                () -> new CardNumberIssuer(sequenceBlockJdbcRepository, transactionManager, "42A612", 10));
+    }
+
+    @Test
+    void shouldRecognizeNumbersInsideIssuingBin() {
+        CardNumberIssuer issuer = new CardNumberIssuer(sequenceBlockJdbcRepository, transactionManager, "427612", 10);
+
+        assertTrue(issuer.isInIssuingBin("4276123456783456"));
+        assertFalse(issuer.isInIssuingBin("4000001234567899"));
+        verifyNoInteractions(sequenceBlockJdbcRepository);
+    }
+}
@@ -1,29 +1,29 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.BatchTransferRequest;
 import com.example.bankcards.dto.CardSearchRequest;
+import com.example.bankcards.dto.TransactionHistoryRequest;
 import com.example.bankcards.dto.TransferRequest;
 import com.example.bankcards.entity.*;
 import com.example.bankcards.exception.CardNotFoundException;
 import com.example.bankcards.exception.CardOperationException;
-import com.example.bankcards.exception.InsufficientException;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.repository.BlockCardRequestRepository;
 import com.example.bankcards.repository.CardRepository;
-import com.example.bankcards.repository.TransactionRepository;
-import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.AuthenticatedUser;
+import com.example.bankcards.util.CardNumberHasher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Collections;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -32,18 +32,21 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class CardServiceTest {
 
-    @Mock
-    private UserRepository userRepository;
-
     @Mock
     private CardRepository cardRepository;
 
     @Mock
-    private TransactionRepository transactionRepository;
+    private CardTransferEngine cardTransferEngine;
 
     @Mock
     private BlockCardRequestRepository blockCardRequestRepository;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private CardNumberHasher cardNumberHasher;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -55,7 +58,6 @@ class CardServiceTest {
 
     private User testUser;
     private Card activeCard1;
-    private Card activeCard2;
     private Card blockedCard;
 
     @BeforeEach
@@ -74,15 +76,6 @@ class CardServiceTest {
                 .status(CardStatus.ACTIVE)
                 .build();
 
-        activeCard2 = Card.builder()
-                .id(2L)
-                .cardNumber("encrypted9876543210987654")
-                .expiryDate(LocalDate.now().plusYears(1))
-                .balance(BigDecimal.valueOf(500))
-                .owner(testUser)
-                .status(CardStatus.ACTIVE)
-                .build();
-
         blockedCard = Card.builder()
                 .id(3L)
                 .cardNumber("encrypted1111222233334444")
@@ -94,109 +87,146 @@ class CardServiceTest {
 
         SecurityContextHolder.setContext(securityContext);
         when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getName()).thenReturn("arapov@gmail.com");
+        lenient().when(authentication.getPrincipal()).thenReturn(new AuthenticatedUser(1L, "arapov@gmail.com"));
     }
 
     @Test
     void shouldThrowException() {
         CardSearchRequest request = new CardSearchRequest();
 
-        when(userRepository.findUserByEmail("arapov@gmail.com"))
-                .thenReturn(Optional.empty());
+        when(authentication.getPrincipal()).thenReturn("anonymousUser");
 
         assertThrows(UserNotFoundException.class, () -> cardService.getUserCards(request));
-        verify(userRepository).findUserByEmail("arapov@gmail.com");
         verifyNoInteractions(cardRepository);
     }
 
     @Test
-    void shouldTransferSuccessfully() {
+    void shouldRejectOversizedTransferBatch() {
+        BatchTransferRequest request = new BatchTransferRequest();
+        request.setTransfers(Collections.nCopies(BatchTransferRequest.MAX_TRANSFERS + 1, new TransferRequest()));
+
+        CardOperationException exception = assertThrows(CardOperationException.class,
+                () -> cardService.transferBatch(request));
+
+        assertEquals("В одном пакете должно быть от 1 до 100 переводов", exception.getMessage());
+        verifyNoInteractions(cardTransferEngine);
+    }
+
+    @Test
+    void shouldDelegateTransferToEngine() {
         TransferRequest request = new TransferRequest();
         request.setFromCardId(1L);
         request.setToCardId(2L);
         request.setAmount(BigDecimal.valueOf(100));
-        request.setDescription("Test transfer");
 
-        when(userRepository.findUserByEmail("arapov@gmail.com"))
-                .thenReturn(Optional.of(testUser));
-        when(cardRepository.existsByIdAndOwnerId(1L, 1L)).thenReturn(true);
-        when(cardRepository.existsByIdAndOwnerId(2L, 1L)).thenReturn(true);
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(activeCard1));
-        when(cardRepository.findById(2L)).thenReturn(Optional.of(activeCard2));
-        when(cardRepository.saveAll(anyList())).thenReturn(List.of(activeCard1, activeCard2));
-        when(transactionRepository.save(any(Transactions.class))).thenReturn(null);
 
         cardService.transferBetweenCards(request);
 
-        assertEquals(BigDecimal.valueOf(900), activeCard1.getBalance());
-        assertEquals(BigDecimal.valueOf(600), activeCard2.getBalance());
-        verify(cardRepository).saveAll(anyList());
-        verify(transactionRepository).save(any(Transactions.class));
+        verify(cardTransferEngine).transfer(1L, request);
     }
 
     @Test
-    void shouldThrowAccessDeniedException() {
+    void shouldResolveRecipientByCardNumberAmongOwnCards() {
         TransferRequest request = new TransferRequest();
         request.setFromCardId(1L);
-        request.setToCardId(2L);
+        request.setToCardNumber("4276123456783456");
         request.setAmount(BigDecimal.valueOf(100));
+        when(cardNumberHasher.hash("4276123456783456")).thenReturn("hash");
+        when(cardRepository.findIdByCardNumberHashAndOwnerId("hash", 1L)).thenReturn(Optional.of(2L));
 
-        when(userRepository.findUserByEmail("arapov@gmail.com"))
-                .thenReturn(Optional.of(testUser));
-        when(cardRepository.existsByIdAndOwnerId(1L, 1L)).thenReturn(false);
+        cardService.transferBetweenCards(request);
 
-        assertThrows(AccessDeniedException.class, () -> cardService.transferBetweenCards(request));
-        verify(cardRepository, never()).findById(anyLong());
+        assertEquals(2L, request.getToCardId());
+        verify(cardTransferEngine).transfer(1L, request);
     }
 
     @Test
-    void shouldThrowInsufficientException() {
+    void shouldNormalizeRecipientCardNumberBeforeLookup() {
         TransferRequest request = new TransferRequest();
         request.setFromCardId(1L);
-        request.setToCardId(2L);
-        request.setAmount(BigDecimal.valueOf(2000));
+        request.setToCardNumber(" 4276 1234-5678 3456 ");
+        request.setAmount(BigDecimal.valueOf(100));
+        when(cardNumberHasher.hash("4276123456783456")).thenReturn("hash");
+        when(cardRepository.findIdByCardNumberHashAndOwnerId("hash", 1L)).thenReturn(Optional.of(2L));
 
-        when(userRepository.findUserByEmail("arapov@gmail.com"))
-                .thenReturn(Optional.of(testUser));
-        when(cardRepository.existsByIdAndOwnerId(1L, 1L)).thenReturn(true);
-        when(cardRepository.existsByIdAndOwnerId(2L, 1L)).thenReturn(true);
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(activeCard1));
-        when(cardRepository.findById(2L)).thenReturn(Optional.of(activeCard2));
+        cardService.transferBetweenCards(request);
+
+        assertEquals(2L, request.getToCardId());
+    }
+
+    @Test
+    void shouldRequireExactlyOneRecipient() {
+        TransferRequest neither = new TransferRequest();
+        neither.setFromCardId(1L);
+        neither.setAmount(BigDecimal.valueOf(100));
+        TransferRequest both = new TransferRequest();
+        both.setFromCardId(1L);
+        both.setToCardId(2L);
+        both.setToCardNumber("4276123456783456");
+        both.setAmount(BigDecimal.valueOf(100));
+        TransferRequest malformed = new TransferRequest();
+        malformed.setFromCardId(1L);
+        malformed.setToCardNumber("4276-1234");
+        malformed.setAmount(BigDecimal.valueOf(100));
+
+        assertThrows(CardOperationException.class, () -> cardService.transferBetweenCards(neither));
+        assertThrows(CardOperationException.class, () -> cardService.transferBetweenCards(both));
+        assertThrows(CardOperationException.class, () -> cardService.transferBetweenCards(malformed));
+        verifyNoInteractions(cardTransferEngine, cardNumberHasher);
+    }
+
+    @Test
+    void shouldRejectTransferToUnknownCardNumber() {
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(1L);
+        request.setToCardNumber("4276123456783456");
+        request.setAmount(BigDecimal.valueOf(100));
+        when(cardNumberHasher.hash("4276123456783456")).thenReturn("hash");
+        when(cardRepository.findIdByCardNumberHashAndOwnerId("hash", 1L)).thenReturn(Optional.empty());
+
+        CardNotFoundException exception = assertThrows(CardNotFoundException.class,
+                () -> cardService.transferBetweenCards(request));
 
-        assertThrows(InsufficientException.class, () -> cardService.transferBetweenCards(request));
-        verify(cardRepository, never()).saveAll(anyList());
+        assertEquals("Карта получателя не найдена", exception.getMessage());
+        verifyNoInteractions(cardTransferEngine);
     }
 
     @Test
-    void shouldUseDefaultDescription() {
+    void shouldNotTransferForUnknownUser() {
         TransferRequest request = new TransferRequest();
         request.setFromCardId(1L);
         request.setToCardId(2L);
         request.setAmount(BigDecimal.valueOf(100));
-        request.setDescription(null);
 
-        when(userRepository.findUserByEmail("arapov@gmail.com"))
-                .thenReturn(Optional.of(testUser));
-        when(cardRepository.existsByIdAndOwnerId(1L, 1L)).thenReturn(true);
-        when(cardRepository.existsByIdAndOwnerId(2L, 1L)).thenReturn(true);
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(activeCard1));
-        when(cardRepository.findById(2L)).thenReturn(Optional.of(activeCard2));
-        when(cardRepository.saveAll(anyList())).thenReturn(List.of(activeCard1, activeCard2));
-        when(transactionRepository.save(any(Transactions.class))).thenAnswer(invocation -> {
-            Transactions transaction = invocation.getArgument(0);
-            assertEquals("Перевод между картами", transaction.getDescription());
-            return transaction;
-        });
+        when(authentication.getPrincipal()).thenReturn("anonymousUser");
 
-        cardService.transferBetweenCards(request);
+        assertThrows(UserNotFoundException.class, () -> cardService.transferBetweenCards(request));
+        verifyNoInteractions(cardTransferEngine);
+    }
 
-        verify(transactionRepository).save(any(Transactions.class));
+    @Test
+    void shouldRejectEmptyHistoryPage() {
+        TransactionHistoryRequest request = new TransactionHistoryRequest();
+        request.setSize(0);
+
+        CardOperationException exception = assertThrows(CardOperationException.class,
+                () -> cardService.getCardTransactions(1L, request));
+
+        assertEquals("Размер страницы должен быть от 1 до 100", exception.getMessage());
+        verifyNoInteractions(cardRepository);
+    }
+
+    @Test
+    void shouldRejectOversizedHistoryPage() {
+        TransactionHistoryRequest request = new TransactionHistoryRequest();
+        request.setSize(1_000_000);
+
+        assertThrows(CardOperationException.class, () -> cardService.getCardTransactions(1L, request));
+        verifyNoInteractions(cardRepository);
     }
 
     @Test
     void shouldReturnBalance() {
-        when(userRepository.findUserByEmail("arapov@gmail.com"))
-                .thenReturn(Optional.of(testUser));
         when(cardRepository.findById(1L)).thenReturn(Optional.of(activeCard1));
 
         BigDecimal balance = cardService.getCardBalance(1L);
@@ -207,8 +237,6 @@ class CardServiceTest {
 
     @Test
     void shouldThrowCardNotFoundException() {
-        when(userRepository.findUserByEmail("arapov@gmail.com"))
-                .thenReturn(Optional.of(testUser));
         when(cardRepository.findById(999L)).thenReturn(Optional.empty());
 
         assertThrows(CardNotFoundException.class, () -> cardService.getCardBalance(999L));
@@ -218,8 +246,6 @@ class CardServiceTest {
     void shouldCreateBlockRequest() {
         String reason = "Lost card";
 
-        when(userRepository.findUserByEmail("arapov@gmail.com"))
-                .thenReturn(Optional.of(testUser));
         when(cardRepository.findById(1L)).thenReturn(Optional.of(activeCard1));
         when(blockCardRequestRepository.save(any(BlockCardRequest.class))).thenReturn(null);
 
@@ -228,12 +254,20 @@ class CardServiceTest {
         verify(blockCardRequestRepository).save(any(BlockCardRequest.class));
     }
 
+    @Test
+    void shouldCollapseRepeatedBlockRequestForSameCard() {
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(activeCard1));
+        when(blockCardRequestRepository.existsByCardIdAndStatus(1L, BlockRequestStatus.PENDING)).thenReturn(true);
+
+        cardService.requestCardBlock(1L, "Lost card");
+
+        verify(blockCardRequestRepository, never()).save(any(BlockCardRequest.class));
+    }
+
     @Test
     void shouldThrowCardOperationException() {
         String reason = "Lost card";
 
-        when(userRepository.findUserByEmail("arapov@gmail.com"))
-                .thenReturn(Optional.of(testUser));
         when(cardRepository.findById(3L)).thenReturn(Optional.of(blockedCard));
 
         assertThrows(CardOperationException.class, () -> cardService.requestCardBlock(3L, reason));
@@ -242,8 +276,6 @@ class CardServiceTest {
 
     @Test
     void shouldCreateRequestWithNullReason() {
-        when(userRepository.findUserByEmail("arapov@gmail.com"))
-                .thenReturn(Optional.of(testUser));
         when(cardRepository.findById(1L)).thenReturn(Optional.of(activeCard1));
         when(blockCardRequestRepository.save(any(BlockCardRequest.class))).thenAnswer(invocation -> {
             BlockCardRequest request = invocation.getArgument(0);
@@ -255,4 +287,35 @@ class CardServiceTest {
 
         verify(blockCardRequestRepository).save(any(BlockCardRequest.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldNotRepeatTransferForKnownIdempotencyKey() {
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(1L);
+        request.setToCardId(2L);
+        request.setAmount(BigDecimal.valueOf(100));
+
+        when(idempotencyService.hash(request, false)).thenReturn("hash");
+        when(idempotencyService.findPrevious(1L, "key-1", "hash"))
+                .thenReturn(Optional.of(IdempotencyRecord.builder().transactionId(5L).requestHash("hash").build()));
+
+        cardService.transferBetweenCards(request, "key-1");
+
+        verifyNoInteractions(cardTransferEngine);
+    }
+
+    @Test
+    void shouldRecordIdempotencyKeyWithTransfer() {
+        TransferRequest request = new TransferRequest();
+        request.setFromCardId(1L);
+        request.setToCardId(2L);
+        request.setAmount(BigDecimal.valueOf(100));
+
+        when(idempotencyService.hash(request, false)).thenReturn("hash");
+        when(idempotencyService.findPrevious(1L, "key-1", "hash")).thenReturn(Optional.empty());
+
+        cardService.transferBetweenCards(request, "key-1");
+
+        verify(cardTransferEngine).transfer(eq(1L), eq(request), any());
+    }
+}
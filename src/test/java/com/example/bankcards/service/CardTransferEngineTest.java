@@ -0,0 +1,322 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransferCommand;
+import com.example.bankcards.dto.TransferContentionDto;
+import com.example.bankcards.dto.TransferRequest;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.LedgerDirection;
+import com.example.bankcards.entity.LedgerEntry;
+import com.example.bankcards.entity.Transactions;
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.exception.InsufficientException;
+import com.example.bankcards.repository.CardLedgerPosition;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardTransferState;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.repository.LedgerEntryRepository;
+import com.example.bankcards.repository.TransferJdbcRepository;
+import com.example.bankcards.util.CardLockManager;
+import com.example.bankcards.util.TransferContentionMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardTransferEngineTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransferJdbcRepository transferJdbcRepository;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private TransferContentionMetrics contentionMetrics;
+    private CardTransferEngine cardTransferEngine;
+
+    private CardTransferState activeCard1;
+    private CardTransferState activeCard2;
+    private TransferRequest request;
+
+    @BeforeEach
+    void setUp() {
+        contentionMetrics = new TransferContentionMetrics();
+        cardTransferEngine = new CardTransferEngine(cardRepository, transactionRepository, transferJdbcRepository, ledgerEntryRepository,
+                new CardLockManager(16, contentionMetrics), contentionMetrics, transactionTemplate);
+        ReflectionTestUtils.setField(cardTransferEngine, "maxAttempts", 3);
+        ReflectionTestUtils.setField(cardTransferEngine, "retryBackoff", Duration.ofMillis(1));
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        activeCard1 = cardState(1L, 1L, CardStatus.ACTIVE, 1000);
+        activeCard2 = cardState(2L, 1L, CardStatus.ACTIVE, 500);
+
+        request = new TransferRequest();
+        request.setFromCardId(1L);
+        request.setToCardId(2L);
+        request.setAmount(BigDecimal.valueOf(100));
+        request.setDescription("Test transfer");
+    }
+
+    private CardTransferState cardState(Long id, Long ownerId, CardStatus status, long balance) {
+        return new CardTransferState() {
+            public Long getId() {
+                return id;
+            }
+
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            public String getStatus() {
+                return status.name();
+            }
+
+            public BigDecimal getBalance() {
+                return BigDecimal.valueOf(balance);
+            }
+        };
+    }
+
+    private CardLedgerPosition position(Long cardId, Long seq) {
+        return new CardLedgerPosition() {
+            public Long getCardId() {
+                return cardId;
+            }
+
+            public Long getSeq() {
+                return seq;
+            }
+        };
+    }
+
+    @Test
+    void shouldTransferWithGuardedUpdates() {
+        when(cardRepository.lockForTransfer(anyCollection())).thenReturn(List.of(activeCard1, activeCard2));
+        when(cardRepository.debit(1L, 1L, BigDecimal.valueOf(100))).thenReturn(1);
+        when(cardRepository.credit(2L, 1L, BigDecimal.valueOf(100))).thenReturn(1);
+        when(transactionRepository.save(any(Transactions.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Transactions transaction = cardTransferEngine.transfer(1L, request);
+
+        assertEquals(BigDecimal.valueOf(100), transaction.getAmount());
+        assertEquals("Test transfer", transaction.getDescription());
+        verify(cardRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void shouldPostDebitAndCreditEntries() {
+        when(cardRepository.lockForTransfer(anyCollection())).thenReturn(List.of(activeCard1, activeCard2));
+        when(cardRepository.debit(1L, 1L, BigDecimal.valueOf(100))).thenReturn(1);
+        when(cardRepository.credit(2L, 1L, BigDecimal.valueOf(100))).thenReturn(1);
+        when(transactionRepository.save(any(Transactions.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(ledgerEntryRepository.findLastPositions(anyCollection())).thenReturn(List.of(position(1L, 41L)));
+
+        Transactions transaction = cardTransferEngine.transfer(1L, request);
+
+        ArgumentCaptor<List<LedgerEntry>> captor = ArgumentCaptor.captor();
+        verify(ledgerEntryRepository).saveAll(captor.capture());
+        List<LedgerEntry> entries = captor.getValue();
+        assertEquals(2, entries.size());
+        assertEquals(LedgerDirection.DEBIT, entries.get(0).getDirection());
+        assertEquals(42L, entries.get(0).getSeq());
+        assertEquals(BigDecimal.valueOf(900), entries.get(0).getBalanceAfter());
+        assertEquals(LedgerDirection.CREDIT, entries.get(1).getDirection());
+        assertEquals(1L, entries.get(1).getSeq());
+        assertEquals(BigDecimal.valueOf(600), entries.get(1).getBalanceAfter());
+        assertSame(transaction, entries.get(0).getTransaction());
+    }
+
+    @Test
+    void shouldUseDefaultDescription() {
+        request.setDescription(null);
+        when(cardRepository.lockForTransfer(anyCollection())).thenReturn(List.of(activeCard1, activeCard2));
+        when(cardRepository.debit(1L, 1L, BigDecimal.valueOf(100))).thenReturn(1);
+        when(cardRepository.credit(2L, 1L, BigDecimal.valueOf(100))).thenReturn(1);
+        when(transactionRepository.save(any(Transactions.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Transactions transaction = cardTransferEngine.transfer(1L, request);
+
+        assertEquals("Перевод между картами", transaction.getDescription());
+    }
+
+    @Test
+    void shouldThrowAccessDeniedException() {
+        when(cardRepository.lockForTransfer(anyCollection()))
+                .thenReturn(List.of(activeCard1, cardState(2L, 2L, CardStatus.ACTIVE, 500)));
+
+        assertThrows(AccessDeniedException.class, () -> cardTransferEngine.transfer(1L, request));
+        verify(cardRepository, never()).debit(anyLong(), anyLong(), any());
+        verify(transactionRepository, never()).save(any(Transactions.class));
+    }
+
+    @Test
+    void shouldThrowAccessDeniedForMissingCard() {
+        when(cardRepository.lockForTransfer(anyCollection())).thenReturn(List.of(activeCard1));
+
+        assertThrows(AccessDeniedException.class, () -> cardTransferEngine.transfer(1L, request));
+        verify(cardRepository, never()).debit(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void shouldThrowCardOperationExceptionForBlockedCard() {
+        when(cardRepository.lockForTransfer(anyCollection()))
+                .thenReturn(List.of(activeCard1, cardState(2L, 1L, CardStatus.BLOCKED, 200)));
+
+        assertThrows(CardOperationException.class, () -> cardTransferEngine.transfer(1L, request));
+        verify(transactionRepository, never()).save(any(Transactions.class));
+    }
+
+    @Test
+    void shouldThrowInsufficientException() {
+        request.setAmount(BigDecimal.valueOf(2000));
+        when(cardRepository.lockForTransfer(anyCollection())).thenReturn(List.of(activeCard1, activeCard2));
+
+        assertThrows(InsufficientException.class, () -> cardTransferEngine.transfer(1L, request));
+        verify(cardRepository, never()).debit(anyLong(), anyLong(), any());
+        verify(transactionRepository, never()).save(any(Transactions.class));
+    }
+
+    @Test
+    void shouldRejectNegativeAmount() {
+        request.setAmount(BigDecimal.valueOf(-100));
+        when(cardRepository.lockForTransfer(anyCollection())).thenReturn(List.of(activeCard1, activeCard2));
+
+        CardOperationException exception = assertThrows(CardOperationException.class,
+                () -> cardTransferEngine.transfer(1L, request));
+
+        assertEquals("Сумма перевода должна быть больше нуля", exception.getMessage());
+        verify(cardRepository, never()).debit(anyLong(), anyLong(), any());
+        verify(cardRepository, never()).credit(anyLong(), anyLong(), any());
+        verify(transactionRepository, never()).save(any(Transactions.class));
+    }
+
+    @Test
+    void shouldRejectZeroAmount() {
+        request.setAmount(BigDecimal.ZERO);
+        when(cardRepository.lockForTransfer(anyCollection())).thenReturn(List.of(activeCard1, activeCard2));
+
+        assertThrows(CardOperationException.class, () -> cardTransferEngine.transfer(1L, request));
+        verify(cardRepository, never()).debit(anyLong(), anyLong(), any());
+        verify(transactionRepository, never()).save(any(Transactions.class));
+    }
+
+    @Test
+    void shouldLockCardsInIdOrder() {
+        request.setFromCardId(2L);
+        request.setToCardId(1L);
+        when(cardRepository.lockForTransfer(anyCollection())).thenReturn(List.of(activeCard1, activeCard2));
+        when(cardRepository.debit(2L, 1L, BigDecimal.valueOf(100))).thenReturn(1);
+        when(cardRepository.credit(1L, 1L, BigDecimal.valueOf(100))).thenReturn(1);
+
+        cardTransferEngine.transfer(1L, request);
+
+        verify(cardRepository).lockForTransfer(List.of(1L, 2L));
+    }
+
+    @Test
+    void shouldRetryOnDeadlock() {
+        when(cardRepository.lockForTransfer(anyCollection()))
+                .thenThrow(new CannotAcquireLockException("Deadlock found when trying to get lock"))
+                .thenReturn(List.of(activeCard1, activeCard2));
+        when(cardRepository.debit(1L, 1L, BigDecimal.valueOf(100))).thenReturn(1);
+        when(cardRepository.credit(2L, 1L, BigDecimal.valueOf(100))).thenReturn(1);
+
+        cardTransferEngine.transfer(1L, request);
+
+        verify(cardRepository, times(2)).lockForTransfer(List.of(1L, 2L));
+        verify(transactionRepository).save(any(Transactions.class));
+        TransferContentionDto contention = contentionMetrics.snapshot();
+        assertEquals(1, contention.retries());
+        assertEquals(1, contention.hottestCards().stream()
+                .filter(card -> card.cardId().equals(1L))
+                .findFirst()
+                .orElseThrow()
+                .retries());
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxAttempts() {
+        when(cardRepository.lockForTransfer(anyCollection()))
+                .thenThrow(new CannotAcquireLockException("Lock wait timeout exceeded"));
+
+        assertThrows(PessimisticLockingFailureException.class, () -> cardTransferEngine.transfer(1L, request));
+        verify(cardRepository, times(3)).lockForTransfer(anyCollection());
+        verify(cardRepository, never()).debit(anyLong(), anyLong(), any());
+        assertEquals(1, contentionMetrics.snapshot().exhaustedRetries());
+    }
+
+    @Test
+    void shouldApplyBatchAgainstRunningBalances() {
+        List<TransferCommand> commands = List.of(
+                new TransferCommand(1L, 1L, 2L, BigDecimal.valueOf(700), "first"),
+                new TransferCommand(1L, 1L, 2L, BigDecimal.valueOf(700), "second"),
+                new TransferCommand(1L, 2L, 1L, BigDecimal.valueOf(1200), "third"));
+
+        List<TransferOutcome> outcomes = cardTransferEngine.applyAll(commands, Map.of(1L, activeCard1, 2L, activeCard2));
+
+        assertEquals(List.of(TransferOutcome.COMPLETED, TransferOutcome.INSUFFICIENT_FUNDS, TransferOutcome.COMPLETED), outcomes);
+        verify(transferJdbcRepository).addToBalances(Map.of(1L, BigDecimal.valueOf(500), 2L, BigDecimal.valueOf(-500)));
+        ArgumentCaptor<List<Transactions>> transfers = ArgumentCaptor.captor();
+        verify(transactionRepository).saveAll(transfers.capture());
+        assertEquals(List.of("first", "third"), transfers.getValue().stream().map(Transactions::getDescription).toList());
+        ArgumentCaptor<List<LedgerEntry>> ledger = ArgumentCaptor.captor();
+        verify(ledgerEntryRepository).saveAll(ledger.capture());
+        assertEquals(List.of(1L, 1L, 2L, 2L), ledger.getValue().stream().map(LedgerEntry::getSeq).toList());
+        assertEquals(List.of(BigDecimal.valueOf(300), BigDecimal.valueOf(1200), BigDecimal.valueOf(0), BigDecimal.valueOf(1500)),
+                ledger.getValue().stream().map(LedgerEntry::getBalanceAfter).toList());
+    }
+
+    @Test
+    void shouldSkipWholeBatchInAtomicMode() {
+        List<TransferCommand> commands = List.of(
+                new TransferCommand(1L, 1L, 2L, BigDecimal.valueOf(100), "first"),
+                new TransferCommand(1L, 2L, 1L, BigDecimal.valueOf(5000), "second"));
+
+        List<TransferOutcome> outcomes = cardTransferEngine.applyAll(commands, Map.of(1L, activeCard1, 2L, activeCard2), true);
+
+        assertEquals(List.of(TransferOutcome.SKIPPED, TransferOutcome.INSUFFICIENT_FUNDS), outcomes);
+        verifyNoInteractions(transferJdbcRepository);
+        verify(transactionRepository, never()).saveAll(any());
+        verify(ledgerEntryRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void shouldRejectMissingAndNonPositiveAmountsInBatch() {
+        List<TransferCommand> commands = List.of(
+                new TransferCommand(1L, 1L, 2L, null, "missing"),
+                new TransferCommand(1L, 1L, 2L, BigDecimal.valueOf(-500), "negative"),
+                new TransferCommand(1L, 1L, 2L, BigDecimal.ZERO, "zero"));
+
+        List<TransferOutcome> outcomes = cardTransferEngine.applyAll(commands, Map.of(1L, activeCard1, 2L, activeCard2));
+
+        assertEquals(List.of(TransferOutcome.INVALID_AMOUNT, TransferOutcome.INVALID_AMOUNT, TransferOutcome.INVALID_AMOUNT),
+                outcomes);
+        verifyNoInteractions(transferJdbcRepository);
+        verify(transactionRepository, never()).saveAll(any());
+    }
+}
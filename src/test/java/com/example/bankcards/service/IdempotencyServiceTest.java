@@ -0,0 +1,76 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransferRequest;
+import com.example.bankcards.entity.IdempotencyRecord;
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyService idempotencyService;
+    private TransferRequest request;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, 100,
+                Duration.ofMinutes(10), Duration.ofHours(24));
+
+        request = new TransferRequest();
+        request.setFromCardId(1L);
+        request.setToCardId(2L);
+        request.setAmount(BigDecimal.valueOf(100));
+        request.setDescription("Test transfer");
+    }
+
+    @Test
+    void shouldHashEqualAmountsTheSame() {
+        String hash = idempotencyService.hash(request, false);
+        request.setAmount(new BigDecimal("100.00"));
+
+        assertEquals(hash, idempotencyService.hash(request, false));
+        assertNotEquals(hash, idempotencyService.hash(request, true));
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        String hash = idempotencyService.hash(request, false);
+        IdempotencyRecord record = IdempotencyRecord.builder().ownerId(1L).idempotencyKey("key-1").requestHash(hash).build();
+        when(idempotencyRecordRepository.findByOwnerIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.of(record));
+
+        assertTrue(idempotencyService.findPrevious(1L, "key-1", hash).isPresent());
+        assertTrue(idempotencyService.findPrevious(1L, "key-1", hash).isPresent());
+
+        verify(idempotencyRecordRepository, times(1)).findByOwnerIdAndIdempotencyKey(1L, "key-1");
+    }
+
+    @Test
+    void shouldRejectKeyReusedForAnotherRequest() {
+        IdempotencyRecord record = IdempotencyRecord.builder().ownerId(1L).idempotencyKey("key-1").requestHash("other").build();
+        when(idempotencyRecordRepository.findByOwnerIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.of(record));
+
+        String hash = idempotencyService.hash(request, false);
+        assertThrows(CardOperationException.class, () -> idempotencyService.findPrevious(1L, "key-1", hash));
+    }
+
+    @Test
+    void shouldRejectTooLongKey() {
+        String key = "k".repeat(101);
+
+        assertThrows(CardOperationException.class, () -> idempotencyService.findPrevious(1L, key, "hash"));
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+}
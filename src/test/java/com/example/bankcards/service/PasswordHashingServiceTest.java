@@ -0,0 +1,156 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.exception.ServiceOverloadedException;
+import com.example.bankcards.util.PasswordHashingMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+
+    private PasswordHashingService passwordHashingService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        passwordHashingService.stop();
+    }
+
+    private PasswordHashingService start(PasswordEncoder encoder, int strength, int queueCapacity, Duration maxWait) {
+        passwordHashingService = new PasswordHashingService(encoder, new PasswordHashingMetrics(),
+                strength, 1, queueCapacity, maxWait);
+        passwordHashingService.start();
+        return passwordHashingService;
+    }
+
+    @Test
+    void shouldHashAndMatchOnExecutor() {
+        PasswordHashingService service = start(new BCryptPasswordEncoder(4), 4, 10, Duration.ofSeconds(5));
+
+        String encoded = service.encode("password123");
+
+        assertTrue(service.matches("password123", encoded));
+        assertFalse(service.matches("wrong", encoded));
+        assertEquals(3, service.getStats().completed());
+    }
+
+    @Test
+    void shouldRequestRehashOnlyWhenCostDiffers() {
+        PasswordHashingService service = start(new BCryptPasswordEncoder(5), 5, 10, Duration.ofSeconds(5));
+
+        assertFalse(service.needsRehash(new BCryptPasswordEncoder(5).encode("password123")));
+        assertTrue(service.needsRehash(new BCryptPasswordEncoder(4).encode("password123")));
+        assertTrue(service.needsRehash(new BCryptPasswordEncoder(6).encode("password123")));
+        assertFalse(service.needsRehash("not-a-bcrypt-hash"));
+    }
+
+    @Test
+    void shouldRejectWhenSaturated() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        PasswordHashingService service = start(blocking, 4, 1, Duration.ofSeconds(5));
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            callers.submit(() -> service.encode("first"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            callers.submit(() -> service.encode("queued"));
+            while (service.getStats().queued() == 0) {
+                Thread.onSpinWait();
+            }
+
+            long start = System.nanoTime();
+            assertThrows(ServiceOverloadedException.class, () -> service.encode("rejected"));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertTrue(elapsedMillis < 1000, "rejected after " + elapsedMillis + " ms");
+            assertEquals(1, service.getStats().rejected());
+            assertEquals(0, service.getStats().timedOut());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            callers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void shouldRejectWithoutQueueingWhenQueuedHashesExceedMaxWait() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder encoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    if ("slow".contentEquals(rawPassword)) {
+                        Thread.sleep(100);
+                    } else if ("blocking".contentEquals(rawPassword)) {
+                        started.countDown();
+                        release.await();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        PasswordHashingService service = start(encoder, 4, 10, Duration.ofMillis(300));
+        service.encode("slow");
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            callers.submit(() -> service.encode("blocking"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                callers.submit(() -> service.encode("queued"));
+            }
+            while (service.getStats().queued() < 3) {
+                Thread.onSpinWait();
+            }
+
+            assertThrows(ServiceOverloadedException.class, () -> service.encode("rejected"));
+            assertEquals(1, service.getStats().rejected());
+            assertEquals(3, service.getStats().queued());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            callers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxWait() {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return false;
+            }
+        };
+        PasswordHashingService service = start(slow, 4, 10, Duration.ofMillis(50));
+
+        assertThrows(ServiceOverloadedException.class, () -> service.matches("password123", "hash"));
+        assertEquals(1, service.getStats().timedOut());
+        release.countDown();
+    }
+}
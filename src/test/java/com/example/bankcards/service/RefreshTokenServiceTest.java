@@ -0,0 +1,113 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.RefreshToken;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InvalidRefreshTokenException;
+import com.example.bankcards.repository.RefreshTokenRepository;
+import com.example.bankcards.security.TokenRevocationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    private RefreshTokenService refreshTokenService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, tokenRevocationRegistry, 604800000L);
+        user = User.builder().id(1L).email("arapov@gmail.com").build();
+    }
+
+    @Test
+    void shouldStoreOnlyHashOfIssuedToken() {
+        String token = refreshTokenService.issue(user);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(64, saved.getValue().getTokenHash().length());
+        assertNotEquals(token, saved.getValue().getTokenHash());
+        assertTrue(saved.getValue().getExpiresAt().isAfter(LocalDateTime.now().plusDays(6)));
+    }
+
+    @Test
+    void shouldRotateWithinSameFamily() {
+        RefreshToken current = stored(null);
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(eq(10L), any(LocalDateTime.class))).thenReturn(1);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("refresh-token");
+
+        assertSame(user, rotation.user());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals("family-1", saved.getValue().getFamilyId());
+        verifyNoInteractions(tokenRevocationRegistry);
+    }
+
+    @Test
+    void shouldRevokeFamilyWhenUsedTokenIsPresentedAgain() {
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(stored(LocalDateTime.now())));
+
+        InvalidRefreshTokenException exception = assertThrows(InvalidRefreshTokenException.class,
+                () -> refreshTokenService.rotate("refresh-token"));
+
+        assertEquals("Refresh-токен уже использован", exception.getMessage());
+        verify(refreshTokenRepository).revokeFamily("family-1");
+        verify(tokenRevocationRegistry).revokeUser(1L);
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void shouldTreatLostRaceAsReuse() {
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(stored(null)));
+        when(refreshTokenRepository.markUsed(eq(10L), any(LocalDateTime.class))).thenReturn(0);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("refresh-token"));
+
+        verify(refreshTokenRepository).revokeFamily("family-1");
+    }
+
+    @Test
+    void shouldRejectUnknownToken() {
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("unknown"));
+        verify(refreshTokenRepository, never()).revokeFamily(anyString());
+    }
+
+    @Test
+    void shouldRejectMissingTokenWithoutLookup() {
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(null));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("  "));
+        verify(refreshTokenRepository, never()).findByTokenHash(anyString());
+    }
+
+    private RefreshToken stored(LocalDateTime usedAt) {
+        return RefreshToken.builder()
+                .id(10L)
+                .user(user)
+                .familyId("family-1")
+                .tokenHash("hash")
+                .createdAt(LocalDateTime.now().minusHours(1))
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .usedAt(usedAt)
+                .build();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.StatementFormat;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.LedgerDirection;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.LongStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Heap check of a large statement streamed through the real JDBC cursor and the CSV
+ * writer: heap growth between the first tenth of the output and the end must stay
+ * flat. Relies on System.gc(), so it is excluded from mvn test; run with
+ * mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "app.statement.fetch-size=500")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StatementExportBenchmark {
+
+    private static final int ROWS = 300_000;
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Autowired
+    private StatementExportService statementExportService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Card card;
+    private long transactionId;
+
+    @BeforeAll
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .firstName("Statement")
+                .lastName("Benchmark")
+                .email("statement-benchmark@gmail.com")
+                .password("password")
+                .build());
+        card = cardRepository.save(Card.builder()
+                .cardNumber("encrypted-statement-benchmark")
+                .lastFourNumbers("0002")
+                .expiryDate(LocalDate.now().plusYears(3))
+                .balance(BigDecimal.ZERO)
+                .owner(owner)
+                .status(CardStatus.ACTIVE)
+                .build());
+        transactionId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM transactions", Long.class);
+        jdbcTemplate.update("INSERT INTO transactions (id, from_card_id, to_card_id, amount, description) "
+                + "VALUES (?, ?, ?, 1.00, 'Перевод между картами')", transactionId, card.getId(), card.getId());
+        long firstId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM ledger_entries", Long.class);
+        jdbcTemplate.batchUpdate("INSERT INTO ledger_entries "
+                        + "(id, card_id, transaction_id, seq, direction, amount, balance_after, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, 1.00, ?, ?)",
+                LongStream.rangeClosed(1, ROWS)
+                        .mapToObj(seq -> new Object[]{firstId + seq, card.getId(), transactionId, seq,
+                                LedgerDirection.CREDIT.name(), BigDecimal.valueOf(seq),
+                                Timestamp.valueOf(START.plusSeconds(seq))})
+                        .toList());
+    }
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM ledger_entries WHERE transaction_id = ?", transactionId);
+        jdbcTemplate.update("DELETE FROM transactions WHERE id = ?", transactionId);
+        cardRepository.delete(card);
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void heapStaysFlatWhileStreamingLargeStatement() throws Exception {
+        HeapSamplingOutputStream output = new HeapSamplingOutputStream();
+
+        long start = System.nanoTime();
+        statementExportService.write(card.getId(), START.toLocalDate(), START.toLocalDate().plusDays(30),
+                StatementFormat.CSV, output);
+        long elapsedNanos = System.nanoTime() - start;
+        long growth = usedHeap() - output.usedAtFirstTenth;
+
+        System.out.printf("statement: %d rows, %d bytes, %d ns/row, heap growth %d bytes%n",
+                output.lines - 1, output.bytes, elapsedNanos / ROWS, growth);
+        assertEquals(ROWS + 1, output.lines);
+        assertTrue(growth < 16 * 1024 * 1024, "heap grew by " + growth + " bytes while streaming");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Discards the output, counts lines and samples the heap once a tenth of the rows
+     * has been written.
+     */
+    private static class HeapSamplingOutputStream extends OutputStream {
+
+        private long bytes;
+        private long lines;
+        private long usedAtFirstTenth;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n' && ++lines == ROWS / 10) {
+                    usedAtFirstTenth = usedHeap();
+                }
+            }
+        }
+    }
+}
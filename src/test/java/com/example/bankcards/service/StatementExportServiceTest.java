@@ -0,0 +1,90 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardTransactionDto;
+import com.example.bankcards.dto.StatementFormat;
+import com.example.bankcards.entity.LedgerDirection;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.LedgerJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatementExportServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 12, 31);
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private LedgerJdbcRepository ledgerJdbcRepository;
+
+    private StatementExportService statementExportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        statementExportService = new StatementExportService(cardRepository, ledgerJdbcRepository, objectMapper);
+    }
+
+    private CardTransactionDto row(long id, String description) {
+        return new CardTransactionDto(id, id, LedgerDirection.DEBIT, BigDecimal.valueOf(10), BigDecimal.valueOf(990),
+                2L, description, LocalDateTime.of(2025, 3, 1, 12, 0));
+    }
+
+    private void streamRows(long count) {
+        doAnswer(invocation -> {
+            Consumer<CardTransactionDto> consumer = invocation.getArgument(3);
+            for (long i = 1; i <= count; i++) {
+                consumer.accept(row(i, "Перевод между картами"));
+            }
+            return null;
+        }).when(ledgerJdbcRepository).streamStatement(eq(1L), any(), any(), any());
+    }
+
+    @Test
+    void shouldWriteCsvWithEscapedFields() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<CardTransactionDto> consumer = invocation.getArgument(3);
+            consumer.accept(row(1L, "Аренда, \"март\""));
+            return null;
+        }).when(ledgerJdbcRepository).streamStatement(eq(1L), eq(FROM.atStartOfDay()), eq(TO.plusDays(1).atStartOfDay()), any());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        statementExportService.write(1L, FROM, TO, StatementFormat.CSV, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("1,1,2025-03-01T12:00,DEBIT,10,990,2,\"Аренда, \"\"март\"\"\"", lines[1]);
+    }
+
+    @Test
+    void shouldWriteOneJsonObjectPerLine() throws Exception {
+        streamRows(3);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        statementExportService.write(1L, FROM, TO, StatementFormat.NDJSON, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[2].startsWith("{\"id\":3,"));
+    }
+}
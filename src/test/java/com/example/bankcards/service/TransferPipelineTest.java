@@ -0,0 +1,154 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransferCommand;
+import com.example.bankcards.entity.AsyncTransfer;
+import com.example.bankcards.entity.TransferStatus;
+import com.example.bankcards.repository.AsyncTransferRepository;
+import com.example.bankcards.repository.TransferJdbcRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferPipelineTest {
+
+    @Mock
+    private CardTransferEngine cardTransferEngine;
+
+    @Mock
+    private AsyncTransferRepository asyncTransferRepository;
+
+    @Mock
+    private TransferJdbcRepository transferJdbcRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private TransferPipeline transferPipeline;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transferPipeline, "queueCapacity", 100);
+        ReflectionTestUtils.setField(transferPipeline, "workers", 1);
+        ReflectionTestUtils.setField(transferPipeline, "batchSize", 10);
+        ReflectionTestUtils.setField(transferPipeline, "recoverAfter", Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (ReflectionTestUtils.getField(transferPipeline, "writers") != null) {
+            transferPipeline.stop();
+        }
+    }
+
+    @Test
+    void shouldRejectOnlyTheFailingTransferOfABatch() {
+        runEngineInline();
+        when(asyncTransferRepository.lockPending(anyCollection()))
+                .thenAnswer(invocation -> new ArrayList<>(invocation.<Collection<Long>>getArgument(0)));
+        when(cardTransferEngine.applyAll(anyList(), anyMap())).thenAnswer(invocation -> {
+            List<TransferCommand> commands = invocation.getArgument(0);
+            if (commands.stream().anyMatch(command -> command.fromCardId() == 3L)) {
+                throw new IllegalStateException("broken transfer");
+            }
+            return commands.stream().map(command -> TransferOutcome.COMPLETED).toList();
+        });
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        List<TransferPipeline.QueuedTransfer> batch = batch(4);
+        transferPipeline.processBatch(batch);
+
+        assertEquals(List.of(TransferStatus.COMPLETED, TransferStatus.COMPLETED, TransferStatus.REJECTED,
+                        TransferStatus.COMPLETED),
+                batch.stream().map(queued -> queued.transfer().getStatus()).toList());
+        assertEquals("Ошибка обработки перевода", batch.get(2).transfer().getFailureReason());
+    }
+
+    @Test
+    void shouldLeaveTransferPendingAfterTransientFailure() {
+        when(cardTransferEngine.executeLocked(anyCollection(), any()))
+                .thenThrow(new CannotAcquireLockException("lock wait timeout"));
+
+        List<TransferPipeline.QueuedTransfer> batch = batch(2);
+        transferPipeline.processBatch(batch);
+
+        assertTrue(batch.stream().allMatch(queued -> queued.transfer().getStatus() == TransferStatus.PENDING));
+        verifyNoInteractions(transferJdbcRepository, transactionTemplate);
+    }
+
+    @Test
+    void shouldSkipTransfersAlreadyProcessedElsewhere() {
+        runEngineInline();
+        when(asyncTransferRepository.lockPending(anyCollection())).thenReturn(List.of(2L));
+        when(cardTransferEngine.applyAll(anyList(), anyMap())).thenReturn(List.of(TransferOutcome.COMPLETED));
+
+        transferPipeline.processBatch(batch(2));
+
+        ArgumentCaptor<List<TransferCommand>> commands = ArgumentCaptor.captor();
+        verify(cardTransferEngine).applyAll(commands.capture(), anyMap());
+        assertEquals(List.of(2L), commands.getValue().stream().map(TransferCommand::fromCardId).toList());
+    }
+
+    @Test
+    void shouldRequeueStalePendingTransfers() {
+        transferPipeline.start();
+        when(asyncTransferRepository.findByStatusAndCreatedAtBeforeOrderById(eq(TransferStatus.PENDING),
+                any(LocalDateTime.class), any())).thenReturn(List.of(transfer(7L)));
+        when(cardTransferEngine.executeLocked(anyCollection(), any())).thenReturn(null);
+
+        transferPipeline.recoverPending();
+
+        verify(cardTransferEngine, timeout(2000)).executeLocked(eq(List.of(7L, 70L)), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runEngineInline() {
+        when(cardTransferEngine.executeLocked(anyCollection(), any())).thenAnswer(invocation ->
+                invocation.<Function<Map<Long, Object>, Object>>getArgument(1).apply(Map.of()));
+    }
+
+    private static List<TransferPipeline.QueuedTransfer> batch(int size) {
+        return LongStream.rangeClosed(1, size)
+                .mapToObj(TransferPipelineTest::transfer)
+                .map(transfer -> new TransferPipeline.QueuedTransfer(transfer, new TransferCommand(
+                        1L, transfer.getFromCardId(), transfer.getToCardId(), transfer.getAmount(), "test")))
+                .toList();
+    }
+
+    private static AsyncTransfer transfer(long id) {
+        return AsyncTransfer.builder()
+                .id(id)
+                .ownerId(1L)
+                .fromCardId(id)
+                .toCardId(id * 10)
+                .amount(BigDecimal.TEN)
+                .status(TransferStatus.PENDING)
+                .createdAt(LocalDateTime.now().minusMinutes(5))
+                .build();
+    }
+}
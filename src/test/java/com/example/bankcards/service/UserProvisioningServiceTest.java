@@ -0,0 +1,152 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.BulkCreateUsersRequest;
+import com.example.bankcards.dto.BulkCreateUsersResponse;
+import com.example.bankcards.dto.CreateUserRequest;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.UserOperationException;
+import com.example.bankcards.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserProvisioningServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RoleService roleService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    private final Role userRole = Role.builder().id(1L).name("ROLE_USER").build();
+    private UserProvisioningService userProvisioningService;
+
+    @BeforeEach
+    void setUp() {
+        userProvisioningService = new UserProvisioningService(userRepository, roleService, passwordEncoder,
+                transactionTemplate, 2, 2);
+        userProvisioningService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userProvisioningService.stop();
+    }
+
+    @Test
+    void shouldCreateUsersInChunksAndReportEachRecord() {
+        when(roleService.getUserRole()).thenReturn(userRole);
+        when(userRepository.findExistingEmails(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<String>>getArgument(0).contains("taken@gmail.com") ? List.of("taken@gmail.com") : List.of());
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        List<User> saved = new ArrayList<>();
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.forEach(user -> {
+                user.setId(100L + saved.size());
+                saved.add(user);
+            });
+            return users;
+        });
+
+        BulkCreateUsersResponse response = userProvisioningService.createUsers(request(
+                user("first@gmail.com"),
+                user("taken@gmail.com"),
+                user("FIRST@gmail.com"),
+                new CreateUserRequest("Ivan", "Ivanov", "short@gmail.com", "123"),
+                user("second@gmail.com")));
+
+        assertEquals(2, response.created());
+        assertEquals(3, response.rejected());
+        assertEquals(List.of("CREATED", "REJECTED", "REJECTED", "REJECTED", "CREATED"),
+                response.results().stream().map(BulkCreateUsersResponse.ItemResult::outcome).toList());
+        assertEquals(List.of(100L, 101L), List.of(response.results().get(0).userId(), response.results().get(4).userId()));
+        assertEquals("Пользователь с такой почтой уже существует", response.results().get(1).message());
+        assertEquals("Пользователь с такой почтой уже существует", response.results().get(2).message());
+        assertEquals("Пароль должен быть не короче 6 символов", response.results().get(3).message());
+
+        assertTrue(passwordEncoder.matches("password123", saved.get(0).getPassword()));
+        assertEquals(List.of(userRole), saved.get(0).getRoles());
+        verify(roleService, times(1)).getUserRole();
+        verify(userRepository, times(3)).findExistingEmails(anyCollection());
+    }
+
+    @Test
+    void shouldRejectChunkThatFailsToWrite() {
+        when(roleService.getUserRole()).thenReturn(userRole);
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .doAnswer(invocation -> {
+                    invocation.<Consumer<Object>>getArgument(0).accept(null);
+                    return null;
+                })
+                .when(transactionTemplate).executeWithoutResult(any());
+
+        BulkCreateUsersResponse response = userProvisioningService.createUsers(request(
+                user("a@gmail.com"), user("b@gmail.com"), user("c@gmail.com")));
+
+        assertEquals(1, response.created());
+        assertEquals("Не удалось сохранить пакет пользователей", response.results().get(0).message());
+        assertEquals("Не удалось сохранить пакет пользователей", response.results().get(1).message());
+        assertEquals("CREATED", response.results().get(2).outcome());
+        ArgumentCaptor<List<User>> users = ArgumentCaptor.captor();
+        verify(userRepository, atLeastOnce()).saveAll(users.capture());
+        assertEquals("c@gmail.com", users.getValue().get(0).getEmail());
+    }
+
+    @Test
+    void shouldRejectOversizedRequest() {
+        BulkCreateUsersRequest request = request(IntStream.range(0, 5001)
+                .mapToObj(i -> user("user" + i + "@gmail.com"))
+                .toArray(CreateUserRequest[]::new));
+
+        UserOperationException exception = assertThrows(UserOperationException.class,
+                () -> userProvisioningService.createUsers(request));
+
+        assertEquals("В одном запросе не больше 5000 пользователей", exception.getMessage());
+        verifyNoInteractions(userRepository, roleService);
+    }
+
+    @Test
+    void shouldDefaultToHalfTheCoresCapped() {
+        assertEquals(1, UserProvisioningService.defaultHashingThreads(1));
+        assertEquals(1, UserProvisioningService.defaultHashingThreads(2));
+        assertEquals(4, UserProvisioningService.defaultHashingThreads(8));
+        assertEquals(4, UserProvisioningService.defaultHashingThreads(64));
+    }
+
+    private static CreateUserRequest user(String email) {
+        return new CreateUserRequest("Ivan", "Ivanov", email, "password123");
+    }
+
+    private static BulkCreateUsersRequest request(CreateUserRequest... users) {
+        BulkCreateUsersRequest request = new BulkCreateUsersRequest();
+        request.setUsers(List.of(users));
+        return request;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.config.CardEncryptionProperties;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Wall-clock comparison, excluded from mvn test; run with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class CardEncryptorBenchmark {
+
+    private static final String CARD_NUMBER = "4276123456783456";
+    private static final String KEY_V1 = "YXJhcG92LWNhcmQta2V5LXYxLWRldi1vbmx5LTAwMDE=";
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int ITERATIONS = 20_000;
+
+    private final CardEncryptor cardEncryptor = new CardEncryptor(
+            new CardEncryptionProperties(1, Map.of(1, KEY_V1), null, null));
+
+    @Test
+    void pooledCipherVersusLookupPerCall() throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            encryptWithLookup();
+            cardEncryptor.decrypt(cardEncryptor.encrypt(CARD_NUMBER));
+        }
+
+        long start = System.nanoTime();
+        int sink = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += encryptWithLookup().length();
+        }
+        long lookupNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += cardEncryptor.encrypt(CARD_NUMBER).length();
+        }
+        long pooledNanos = System.nanoTime() - start;
+
+        System.out.printf("lookup per call: %d ns/op, pooled cipher: %d ns/op%n",
+                lookupNanos / ITERATIONS, pooledNanos / ITERATIONS);
+        assertTrue(sink > 0);
+        assertTrue(pooledNanos < lookupNanos);
+    }
+
+    private String encryptWithLookup() throws Exception {
+        byte[] iv = new byte[12];
+        RANDOM.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(Base64.getDecoder().decode(KEY_V1), "AES"),
+                new GCMParameterSpec(128, iv));
+        return Base64.getEncoder().encodeToString(cipher.doFinal(CARD_NUMBER.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.config.CardEncryptionProperties;
+import org.junit.jupiter.api.Test;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardEncryptorTest {
+
+    private static final String CARD_NUMBER = "4276123456783456";
+    private static final String KEY_V1 = "YXJhcG92LWNhcmQta2V5LXYxLWRldi1vbmx5LTAwMDE=";
+    private static final String KEY_V2 = Base64.getEncoder().encodeToString("arapov-card-key-v2-test-only-002".getBytes(StandardCharsets.UTF_8));
+    private static final String LEGACY_KEY = "arapov-key-aes16";
+
+    private final CardEncryptor cardEncryptor = encryptor(1);
+
+    private CardEncryptor encryptor(int activeVersion) {
+        return new CardEncryptor(new CardEncryptionProperties(activeVersion, Map.of(1, KEY_V1, 2, KEY_V2), LEGACY_KEY, null));
+    }
+
+    @Test
+    void shouldRoundTripWithVersionPrefixAndFreshIv() {
+        String first = cardEncryptor.encrypt(CARD_NUMBER);
+        String second = cardEncryptor.encrypt(CARD_NUMBER);
+
+        assertTrue(first.startsWith("v1:"));
+        assertNotEquals(first, second);
+        assertEquals(CARD_NUMBER, cardEncryptor.decrypt(first));
+        assertEquals(CARD_NUMBER, cardEncryptor.decrypt(second));
+    }
+
+    @Test
+    void shouldReadOlderVersionsAndLegacyValues() throws Exception {
+        String writtenWithV1 = cardEncryptor.encrypt(CARD_NUMBER);
+        Cipher ecb = Cipher.getInstance("AES");
+        ecb.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(LEGACY_KEY.getBytes(), "AES"));
+        String legacy = Base64.getEncoder().encodeToString(ecb.doFinal(CARD_NUMBER.getBytes()));
+
+        CardEncryptor rotated = encryptor(2);
+
+        assertTrue(rotated.encrypt(CARD_NUMBER).startsWith("v2:"));
+        assertEquals(1, rotated.keyVersionOf(writtenWithV1));
+        assertEquals(CardEncryptor.LEGACY_KEY_VERSION, rotated.keyVersionOf(legacy));
+        assertEquals(List.of(CARD_NUMBER, CARD_NUMBER), rotated.decryptAll(List.of(writtenWithV1, legacy)));
+    }
+
+    @Test
+    void shouldRejectTamperedCiphertext() {
+        String encrypted = cardEncryptor.encrypt(CARD_NUMBER);
+        char last = encrypted.charAt(encrypted.length() - 3);
+        String tampered = encrypted.substring(0, encrypted.length() - 3) + (last == 'A' ? 'B' : 'A')
+                + encrypted.substring(encrypted.length() - 2);
+
+        assertThrows(RuntimeException.class, () -> cardEncryptor.decrypt(tampered));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardLockManagerTest {
+
+    @Test
+    void shouldNotDeadlockOnOppositeTransfers() throws Exception {
+        TransferContentionMetrics metrics = new TransferContentionMetrics();
+        CardLockManager lockManager = new CardLockManager(64, metrics);
+        AtomicInteger balance = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                List<Long> cardIds = i % 2 == 0 ? List.of(1L, 2L) : List.of(2L, 1L);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < 1_000; j++) {
+                        lockManager.withLocks(cardIds, () -> {
+                            int current = balance.get();
+                            balance.set(current + 1);
+                            return null;
+                        });
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(8_000, balance.get());
+        assertEquals(8_000, metrics.snapshot().lockAcquisitions());
+    }
+
+    @Test
+    void shouldLockOnceWhenCardsShareStripe() {
+        CardLockManager lockManager = new CardLockManager(1, new TransferContentionMetrics());
+
+        String result = lockManager.withLocks(List.of(1L, 2L, 3L), () -> "done");
+
+        assertEquals("done", result);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.config.CardEncryptionProperties;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Wall-clock comparison, excluded from mvn test; run with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class CardMaskerBenchmark {
+
+    private static final String CARD_NUMBER = "4276123456783456";
+    private static final int ITERATIONS = 200_000;
+
+    private final CardEncryptor cardEncryptor = new CardEncryptor(new CardEncryptionProperties(1,
+            Map.of(1, "YXJhcG92LWNhcmQta2V5LXYxLWRldi1vbmx5LTAwMDE="), null, null));
+
+    @Test
+    void maskFromLastFourVersusDecrypt() {
+        String encrypted = cardEncryptor.encrypt(CARD_NUMBER);
+        int sink = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += CardMasker.maskCardNumber(cardEncryptor.decrypt(encrypted)).length();
+            sink += CardMasker.maskLastFour("3456").length();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += CardMasker.maskCardNumber(cardEncryptor.decrypt(encrypted)).length();
+        }
+        long decryptNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += CardMasker.maskLastFour("3456").length();
+        }
+        long lastFourNanos = System.nanoTime() - start;
+
+        System.out.printf("decrypt and mask: %d ns/op, last four: %d ns/op%n",
+                decryptNanos / ITERATIONS, lastFourNanos / ITERATIONS);
+        assertEquals(4 * ITERATIONS * 19, sink);
+        assertTrue(lastFourNanos < decryptNanos);
+    }
+}
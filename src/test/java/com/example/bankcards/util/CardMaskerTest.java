@@ -0,0 +1,21 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardMaskerTest {
+
+    private static final String CARD_NUMBER = "4276123456783456";
+
+    @Test
+    void shouldMaskFromLastFourLikeFromFullNumber() {
+        assertEquals(CardMasker.maskCardNumber(CARD_NUMBER), CardMasker.maskLastFour("3456"));
+        assertEquals("**** **** **** 3456", CardMasker.maskLastFour("3456"));
+    }
+
+    @Test
+    void shouldFullyMaskInvalidLastFour() {
+        assertEquals("**** **** **** ****", CardMasker.maskLastFour(null));
+        assertEquals("**** **** **** ****", CardMasker.maskLastFour("12"));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.config.CardEncryptionProperties;
+import org.junit.jupiter.api.Test;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardNumberHasherTest {
+
+    private static final String CARD_NUMBER = "4276123456783456";
+
+    private CardNumberHasher hasher(String indexKey) {
+        return new CardNumberHasher(new CardEncryptionProperties(1, Map.of(), null, indexKey));
+    }
+
+    @Test
+    void shouldHashEqualNumbersEquallyUnderOneKey() {
+        CardNumberHasher hasher = hasher("YXJhcG92LWNhcmQtaW5kZXgta2V5LWRldi1vbmx5LTE=");
+
+        String hash = hasher.hash(CARD_NUMBER);
+
+        assertEquals(64, hash.length());
+        assertEquals(hash, hasher.hash(CARD_NUMBER));
+        assertNotEquals(hash, hasher.hash("4276123456783457"));
+    }
+
+    @Test
+    void shouldDependOnIndexKey() {
+        String first = hasher("YXJhcG92LWNhcmQtaW5kZXgta2V5LWRldi1vbmx5LTE=").hash(CARD_NUMBER);
+        String second = hasher("YXJhcG92LWNhcmQtaW5kZXgta2V5LWRldi1vbmx5LTI=").hash(CARD_NUMBER);
+
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void shouldRequireIndexKey() {
+        assertThrows(IllegalStateException.class, () -> hasher(null));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Wall-clock comparison, excluded from mvn test; run with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class JwtTokenUtilBenchmark {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+    private static final int ITERATIONS = 20_000;
+
+    private final User user = User.builder()
+            .id(7L)
+            .email("arapov@gmail.com")
+            .roles(List.of(Role.builder().id(1L).name("ROLE_ADMIN").build()))
+            .build();
+
+    @Test
+    void verifiedCacheVersusParsing() {
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(SECRET, Duration.ofHours(1), 100, Duration.ofMinutes(5));
+        JwtTokenUtil uncached = new JwtTokenUtil(SECRET, Duration.ofHours(1), 0, Duration.ofMinutes(5));
+        String token = jwtTokenUtil.generateToken(user);
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            parseWithFreshParser(token);
+            uncached.getAllClaimsFromToken(token);
+            jwtTokenUtil.getAllClaimsFromToken(token);
+        }
+
+        long start = System.nanoTime();
+        int sink = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += parseWithFreshParser(token).getSubject().length();
+        }
+        long freshNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += uncached.getAllClaimsFromToken(token).getSubject().length();
+        }
+        long sharedParserNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += jwtTokenUtil.getAllClaimsFromToken(token).getSubject().length();
+        }
+        long cachedNanos = System.nanoTime() - start;
+
+        System.out.printf("fresh parser: %d ns/op, shared parser: %d ns/op, verified cache: %d ns/op%n",
+                freshNanos / ITERATIONS, sharedParserNanos / ITERATIONS, cachedNanos / ITERATIONS);
+        assertEquals(3 * ITERATIONS * 16, sink);
+        assertTrue(cachedNanos < freshNanos);
+    }
+
+    private Claims parseWithFreshParser(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenUtilTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final User user = User.builder()
+            .id(7L)
+            .email("arapov@gmail.com")
+            .roles(List.of(Role.builder().id(1L).name("ROLE_ADMIN").build()))
+            .build();
+
+    private JwtTokenUtil jwtTokenUtil(Duration lifetime, int cacheSize) {
+        return new JwtTokenUtil(SECRET, lifetime, cacheSize, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void shouldCarryUserIdAndRolesInClaims() {
+        JwtTokenUtil jwtTokenUtil = jwtTokenUtil(Duration.ofHours(1), 100);
+
+        Claims claims = jwtTokenUtil.getAllClaimsFromToken(jwtTokenUtil.generateToken(user));
+
+        assertEquals("arapov@gmail.com", claims.getSubject());
+        assertEquals(7L, claims.get(JwtTokenUtil.USER_ID_CLAIM, Long.class));
+        assertEquals(List.of("ROLE_ADMIN"), jwtTokenUtil.getRoles(claims));
+    }
+
+    @Test
+    void shouldServeRepeatedTokenFromCache() {
+        JwtTokenUtil jwtTokenUtil = jwtTokenUtil(Duration.ofHours(1), 100);
+        String token = jwtTokenUtil.generateToken(user);
+
+        assertSame(jwtTokenUtil.getAllClaimsFromToken(token), jwtTokenUtil.getAllClaimsFromToken(token));
+    }
+
+    @Test
+    void shouldRejectTamperedAndExpiredTokens() {
+        JwtTokenUtil jwtTokenUtil = jwtTokenUtil(Duration.ofHours(1), 100);
+        String token = jwtTokenUtil.generateToken(user);
+        jwtTokenUtil.getAllClaimsFromToken(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertFalse(jwtTokenUtil.validateToken(tampered));
+
+        JwtTokenUtil expiring = jwtTokenUtil(Duration.ofMinutes(-1), 100);
+        String expired = expiring.generateToken(user);
+        assertThrows(ExpiredJwtException.class, () -> expiring.getAllClaimsFromToken(expired));
+        assertFalse(expiring.validateToken(expired));
+    }
+}
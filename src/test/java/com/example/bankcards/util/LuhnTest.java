@@ -0,0 +1,22 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LuhnTest {
+
+    @Test
+    void shouldComputeCheckDigit() {
+        assertEquals(1, Luhn.checkDigit("411111111111111"));
+        assertEquals(3, Luhn.checkDigit("7992739871"));
+    }
+
+    @Test
+    void shouldValidateNumbers() {
+        assertTrue(Luhn.isValid("4111111111111111"));
+        assertTrue(Luhn.isValid("79927398713"));
+        assertFalse(Luhn.isValid("4111111111111112"));
+        assertFalse(Luhn.isValid("4111-1111"));
+        assertFalse(Luhn.isValid(null));
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class Sha256Test {
+
+    @Test
+    void shouldHashToLowercaseHex() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", Sha256.hex("abc"));
+        assertEquals(64, Sha256.hex("").length());
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TtlCacheTest {
+
+    @Test
+    void shouldReturnValueUntilItExpires() {
+        TtlCache<String, String> live = new TtlCache<>(10, Duration.ofMinutes(5));
+        TtlCache<String, String> expired = new TtlCache<>(10, Duration.ofNanos(-1));
+
+        live.put("a", "1");
+        expired.put("a", "1");
+
+        assertEquals("1", live.get("a"));
+        assertNull(expired.get("a"));
+        assertEquals(0, expired.size());
+    }
+
+    @Test
+    void shouldStayWithinMaxSize() {
+        TtlCache<Integer, Integer> cache = new TtlCache<>(100, Duration.ofMinutes(5));
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.put(i, i);
+            assertTrue(cache.size() <= 100);
+        }
+        assertEquals(999, cache.get(999));
+    }
+
+    @Test
+    void shouldStoreNothingWhenDisabled() {
+        TtlCache<String, String> cache = new TtlCache<>(0, Duration.ofMinutes(5));
+
+        cache.put("a", "1");
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+}